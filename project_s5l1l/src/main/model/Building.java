@@ -2,59 +2,111 @@ package model;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
+import persistence.JsonOutput;
+import persistence.StreamWritable;
 import persistence.Writable;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 // Represents a building in a village, it can have citizens work in it,
 // it has a type of FARM,MINE, or LUMBER MILL that determines its resource production
 // it produces recources based on how many citizens work in it, it has a maximum number of workers
 // it has name
+// the type label is kept as given, the matching BuildingType (null if it matches none) is looked up once.
+// when it belongs to a village it tells the village every time its production changes.
+// its compact JSON is cached and only made again after it or one of its workers changes,
+// or after the citizens of its village move to other positions.
+
+public class Building implements Writable, StreamWritable {
+    public static final int DEFAULT_MAX_WORKERS = 5;
+    private static final int OUTPUT_PER_WORKER = 3;
 
-public class Building implements Writable {
     private final String type;
-    private final List<Citizen> workers;
+    private final BuildingType kind;
+    private final Set<Citizen> workers;
     private int maxWorkers;
     private String name;
+    private Village owner;
+    private String fragment;
+    private CitizenTable fragmentTable;
+    private int fragmentVersion;
 
 
     //REQUIRES: type is one of "Farm", "Mine", "Lumber Mill" and name to be !null.
     //EFFECTS: Makes a new Building of type and name,
-    //         initializes workers as an empty list, sets maxWorkers to 5, and initializes the type and name fields.
+    //         initializes workers as an empty list, sets maxWorkers to DEFAULT_MAX_WORKERS,
+    //         and initializes the type and name fields.
+    //         workers are kept in hiring order in a linked hash set, so hiring and firing any worker is O(1).
     public Building(String type, String name) {
-        this.workers = new ArrayList<>();
+        this.workers = new LinkedHashSet<>();
         this.name = name;
-        this.maxWorkers = 5;
+        this.maxWorkers = DEFAULT_MAX_WORKERS;
         this.type = type;
+        this.kind = BuildingType.fromLabel(type);
+    }
+
+    //REQUIRES: type and name to be !null.
+    //EFFECTS: Makes a new Building of type and name, labelled with the label of type.
+    public Building(BuildingType type, String name) {
+        this(type.getLabel(), name);
     }
 
     //REQUIRES: citizen is !null and workers.size() < maxWorkers.
     //MODIFIES: this
-    //EFFECTS:  adds citizen to workers if there is space, otherwise nothing.
-    public void addWorker(Citizen citizen) {
-        if ((workers.size() < maxWorkers)) {
-            workers.add(citizen);
+    //EFFECTS:  adds citizen to workers if there is space and they don't work here yet, otherwise nothing.
+    //          Outside the model workers are hired with Village.hire, so the change is recorded.
+    void addWorker(Citizen citizen) {
+        restoreWorker(citizen);
+        EventLog.getInstance().log(EventMessage.WORKER_ADDED, this.name, null);
+    }
+
+    //REQUIRES: citizen is !null
+    //MODIFIES: this, citizen
+    //EFFECTS:  adds citizen to workers the way addWorker does, without logging. Used by VillageBuilder.
+    void restoreWorker(Citizen citizen) {
+        if ((workers.size() < maxWorkers) && workers.add(citizen)) {
+            citizen.setEmployer(this);
+            outputChanged(OUTPUT_PER_WORKER);
+            invalidateFragment();
         }
-        EventLog.getInstance().logEvent(new Event(String.format("A worker was added to %s", this.name)));
     }
 
     //REQUIRES: citizen is !null
     //MODIFIES: this.workers
     //EFFECTS:  removes first citizen from workers return removed citizen.
-    public Citizen removeWorker() {
+    Citizen removeWorker() {
         if (!workers.isEmpty()) {
-            Citizen c = workers.remove(0);
-            c.setWorking(false);
-            EventLog.getInstance().logEvent(new Event(String.format("A worker was removed from %s", this.name)));
+            Citizen c = workers.iterator().next();
+            removeWorker(c);
             return c;
         }
         return null;
     }
 
+    //MODIFIES: this, citizen
+    //EFFECTS:  removes citizen from workers and returns true if they work here, otherwise returns false.
+    //          Outside the model workers are fired with Village.fire, so the change is recorded.
+    boolean removeWorker(Citizen citizen) {
+        if (workers.remove(citizen)) {
+            invalidateFragment();
+            citizen.setEmployer(null);
+            outputChanged(-OUTPUT_PER_WORKER);
+            citizen.setWorking(false);
+            EventLog.getInstance().log(EventMessage.WORKER_REMOVED, this.name, null);
+            return true;
+        }
+        return false;
+    }
 
-    public List<Citizen> getWorkers() {
-        return workers;
+
+    //EFFECTS: Returns a read-only view of the workers in hiring order,
+    //         use Village.hire and Village.fire to change them.
+    public Collection<Citizen> getWorkers() {
+        return Collections.unmodifiableSet(workers);
     }
 
 
@@ -66,39 +118,142 @@ public class Building implements Writable {
         return type;
     }
 
+    //EFFECTS: Returns the catalog type of this building, null if its type label is not in the catalog.
+    public BuildingType getKind() {
+        return kind;
+    }
+
     public String getName() {
         return name;
     }
 
-    public void setName(String name) {
+    //MODIFIES: this
+    //EFFECTS: Sets the name of this building. Outside the model it is renamed with Village.renameBuilding.
+    void setName(String name) {
         this.name = name;
+        invalidateFragment();
     }
 
     //EFFECTS: Returns the output of this building based on the number of workers assigned.
     public int produce() {
-        return this.getNumWorkers() * 3;
+        return this.getNumWorkers() * OUTPUT_PER_WORKER;
     }
 
     public int getMaxWorkers() {
         return maxWorkers;
     }
 
-    public void setMaxWorkers(int maxWorkers) {
+    //MODIFIES: this
+    //EFFECTS: Sets how many workers fit in this building, only used while a village is built up or restored.
+    void setMaxWorkers(int maxWorkers) {
         this.maxWorkers = maxWorkers;
+        invalidateFragment();
+    }
+
+    //MODIFIES: this
+    //EFFECTS: Drops the cached JSON of this building, it is made again the next time it is written.
+    void invalidateFragment() {
+        fragment = null;
+    }
+
+    //REQUIRES: positions maps every slot in use in table to the position of its citizen in the village.
+    //MODIFIES: this
+    //EFFECTS: Returns the compact JSON of this building as writeJson(out, table, positions) writes it,
+    //         made again only if this building or a worker changed or citizens of table moved since last time.
+    String fragment(CitizenTable table, int[] positions) {
+        if (fragment == null || fragmentTable != table || fragmentVersion != table.orderVersion()) {
+            fragment = JsonOutput.compact(out -> writeJson(out, table, positions));
+            fragmentTable = table;
+            fragmentVersion = table.orderVersion();
+        }
+        return fragment;
+    }
+
+    //REQUIRES: positions maps every slot in use in table to the position of its citizen in the village.
+    //EFFECTS: Returns the current state of this building, workers that are citizens of table are kept
+    //         by their position.
+    BuildingSnapshot snapshot(CitizenTable table, int[] positions) {
+        int[] positionOf = new int[workers.size()];
+        String[] outsiderNames = new String[workers.size()];
+        boolean[] outsiderWorking = new boolean[workers.size()];
+        int i = 0;
+        for (Citizen worker : workers) {
+            if (worker.isViewOf(table)) {
+                positionOf[i] = positions[worker.getSlot()];
+            } else {
+                positionOf[i] = -1;
+                outsiderNames[i] = worker.getName();
+                outsiderWorking[i] = worker.isWorking();
+            }
+            i++;
+        }
+        return new BuildingSnapshot(type, name, maxWorkers, positionOf, outsiderNames, outsiderWorking);
+    }
+
+    //MODIFIES: this
+    //EFFECTS: Sets the village this building belongs to, null if it belongs to none.
+    void setOwner(Village owner) {
+        this.owner = owner;
+    }
+
+    //MODIFIES: owner
+    //EFFECTS: Tells the owning village, if any, that this building now produces delta more per turn.
+    private void outputChanged(int delta) {
+        if (owner != null && kind != null) {
+            owner.productionChanged(kind.getResource(), delta);
+        }
     }
 
     @Override
     //EFFECTS: Returns this building as a JSONObject.
     public JSONObject toJson() {
+        return toJson(null, null);
+    }
+
+    //REQUIRES: positions maps every slot in use in table to the position of its citizen in the village.
+    //EFFECTS: Returns this building as a JSONObject, each worker that is a citizen of table also has
+    //         its position in the village as "citizen", so a reader can put the same citizen back to work here.
+    JSONObject toJson(CitizenTable table, int[] positions) {
         JSONObject json = new JSONObject();
         json.put("type", type);
         json.put("name", name);
         json.put("maxWorkers", maxWorkers);
         JSONArray workersJson = new JSONArray();
         for (Citizen worker : workers) {
-            workersJson.put(worker.toJson());
+            JSONObject workerJson = worker.toJson();
+            if (table != null && worker.isViewOf(table)) {
+                workerJson.put("citizen", positions[worker.getSlot()]);
+            }
+            workersJson.put(workerJson);
         }
         json.put("workers", workersJson);
         return json;
     }
+
+    @Override
+    //EFFECTS: Writes this building to out as a JSON object, the same as toJson().
+    public void writeJson(JsonOutput out) throws IOException {
+        writeJson(out, null, null);
+    }
+
+    //REQUIRES: positions maps every slot in use in table to the position of its citizen in the village.
+    //EFFECTS: Writes this building to out as a JSON object, the same as toJson(table, positions).
+    void writeJson(JsonOutput out, CitizenTable table, int[] positions) throws IOException {
+        out.beginObject();
+        out.name("type").value(type);
+        out.name("name").value(name);
+        out.name("maxWorkers").value(maxWorkers);
+        out.name("workers").beginArray();
+        for (Citizen worker : workers) {
+            out.beginObject();
+            out.name("name").value(worker.getName());
+            out.name("isWorking").value(worker.isWorking());
+            if (table != null && worker.isViewOf(table)) {
+                out.name("citizen").value(positions[worker.getSlot()]);
+            }
+            out.endObject();
+        }
+        out.endArray();
+        out.endObject();
+    }
 }
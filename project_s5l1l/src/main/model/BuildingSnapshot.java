@@ -0,0 +1,61 @@
+package model;
+
+// Represents the state of a building at one moment, which never changes afterwards.
+// Workers are kept as positions in the village's citizens, a worker who is not a citizen of the village
+// is kept by name and working status instead and has position -1.
+public class BuildingSnapshot {
+    private final String type;
+    private final String name;
+    private final int maxWorkers;
+    private final int[] workers;
+    private final String[] outsiderNames;
+    private final boolean[] outsiderWorking;
+
+    //REQUIRES: workers, outsiderNames and outsiderWorking have the same length, outsiderNames[i] !null
+    //          exactly where workers[i] == -1. The arrays are not copied and must not be changed afterwards.
+    //EFFECTS: Makes a snapshot of a building with the given state.
+    BuildingSnapshot(String type, String name, int maxWorkers, int[] workers, String[] outsiderNames,
+                     boolean[] outsiderWorking) {
+        this.type = type;
+        this.name = name;
+        this.maxWorkers = maxWorkers;
+        this.workers = workers;
+        this.outsiderNames = outsiderNames;
+        this.outsiderWorking = outsiderWorking;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxWorkers() {
+        return maxWorkers;
+    }
+
+    public int getWorkerCount() {
+        return workers.length;
+    }
+
+    //REQUIRES: 0 <= index < getWorkerCount()
+    //EFFECTS: Returns the position among the village's citizens of the worker at index in hiring order,
+    //         or -1 if the worker is not a citizen of the village.
+    public int getWorker(int index) {
+        return workers[index];
+    }
+
+    //REQUIRES: getWorker(index) == -1
+    //EFFECTS: Returns the name of the worker at index, who is not a citizen of the village.
+    public String getOutsiderName(int index) {
+        return outsiderNames[index];
+    }
+
+    //REQUIRES: getWorker(index) == -1
+    //EFFECTS: Returns whether the worker at index, who is not a citizen of the village, is working.
+    public boolean isOutsiderWorking(int index) {
+        return outsiderWorking[index];
+    }
+}
@@ -0,0 +1,53 @@
+package model;
+
+// Represents the catalog of buildings a village can build,
+// each type has a label shown to the player, the resource it produces and how much wood and stone it costs.
+public enum BuildingType {
+    FARM("Farm", Resource.FOOD, 4, 1),
+    MINE("Mine", Resource.STONE, 6, 3),
+    LUMBER_MILL("Lumber Mill", Resource.WOOD, 3, 2);
+
+    private final String label;
+    private final Resource resource;
+    private final int woodCost;
+    private final int stoneCost;
+
+    //EFFECTS: Makes a building type with label, produced resource and building costs.
+    BuildingType(String label, Resource resource, int woodCost, int stoneCost) {
+        this.label = label;
+        this.resource = resource;
+        this.woodCost = woodCost;
+        this.stoneCost = stoneCost;
+    }
+
+    //EFFECTS: Returns the type whose label matches label ignoring case, or null if there is none.
+    public static BuildingType fromLabel(String label) {
+        for (BuildingType type : values()) {
+            if (type.label.equalsIgnoreCase(label)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public Resource getResource() {
+        return resource;
+    }
+
+    public int getWoodCost() {
+        return woodCost;
+    }
+
+    public int getStoneCost() {
+        return stoneCost;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
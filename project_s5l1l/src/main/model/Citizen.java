@@ -2,15 +2,24 @@ package model;
 
 
 import org.json.JSONObject;
+import persistence.JsonOutput;
+import persistence.StreamWritable;
 import persistence.Writable;
 
+import java.io.IOException;
+
 // Represents a citizen in a village, a citizen can be employed represented by the boolean isWorking
 // A citizen can work in a building that produces resources
 // A citizen consumes food every turn
-public class Citizen implements Writable {
+// Once added to a village a citizen is a view over its slot in the village's CitizenTable,
+// until then (and after being removed) it holds its own state.
+public class Citizen implements Writable, StreamWritable {
 
+    private CitizenTable table;
+    private int slot;
     private String name;
     private boolean isWorking;
+    private Building employer;
 
     //REQUIRES: name !null.
     //EFFECTS: Makes a new Citizen with name and isWorking == false.
@@ -20,43 +29,127 @@ public class Citizen implements Writable {
 
     }
 
+    //REQUIRES: table !null, slot is in use in table.
+    //EFFECTS: Makes a Citizen that views slot of table.
+    Citizen(CitizenTable table, int slot) {
+        this.table = table;
+        this.slot = slot;
+    }
+
     //MODIFIES: village
     //EFFECTS:  decreases village food by 2, return true if there is enough food for citizen
     //          otherwise false
     public boolean eat(Village village) {
-        EventLog.getInstance().logEvent(new Event("A citizen was able to eat"));
-        return village.changeFood(-2);
+        return village.feedCitizen();
     }
 
     //EFFECTS: Returns true if the citizen is currently working,
     //         otherwise false.
     public boolean isWorking() {
-        return isWorking;
+        return table == null ? isWorking : table.isWorking(slot);
     }
 
     //MODIFIES: this
     //EFFECTS: Sets working status to the specified value.
-    public void setWorking(boolean working) {
-        EventLog.getInstance().logEvent(new Event(String.format("%s is now working", this.name)));
-        isWorking = working;
+    //         Outside the model a citizen starts or stops working through Village.hire and Village.fire.
+    void setWorking(boolean working) {
+        EventLog.getInstance().log(EventMessage.NOW_WORKING, getName(), null);
+        if (table == null) {
+            isWorking = working;
+            invalidateEmployer();
+        } else {
+            table.setWorking(slot, working);
+        }
     }
 
     public String getName() {
-        return name;
+        return table == null ? name : table.getName(slot);
     }
 
     //MODIFIES: this
-    //EFFECTS: Sets this.name to name.
-    public void setName(String name) {
-        EventLog.getInstance().logEvent(new Event(String.format("%s was renamed to %s", this.name, name)));
-        this.name = name;
+    //EFFECTS: Sets this.name to name. Outside the model a citizen is renamed with Village.renameCitizen.
+    void setName(String name) {
+        EventLog.getInstance().log(EventMessage.RENAMED, getName(), name);
+        if (table == null) {
+            this.name = name;
+            invalidateEmployer();
+        } else {
+            table.setName(slot, name);
+        }
+    }
+
+    //EFFECTS: Tells the building this stand-alone citizen works in, if any, that its JSON has changed.
+    private void invalidateEmployer() {
+        if (employer != null) {
+            employer.invalidateFragment();
+        }
+    }
+
+    //EFFECTS: Returns true if this citizen is a view over a slot of table.
+    boolean isViewOf(CitizenTable table) {
+        return this.table == table;
+    }
+
+    //REQUIRES: this citizen is a view over a slot of a table.
+    //EFFECTS: Returns the slot this citizen is a view of.
+    int getSlot() {
+        return slot;
+    }
+
+    //EFFECTS: Returns the building this citizen is assigned to, null if there is none.
+    Building getEmployer() {
+        return table == null ? employer : table.getBuilding(slot);
+    }
+
+    //MODIFIES: this
+    //EFFECTS: Assigns this citizen to building, null clears the assignment.
+    void setEmployer(Building building) {
+        if (table == null) {
+            employer = building;
+        } else {
+            table.setBuilding(slot, building);
+        }
+    }
+
+    //MODIFIES: this
+    //EFFECTS: Makes this citizen a view of slot in table, dropping its own copy of the state.
+    void attach(CitizenTable table, int slot) {
+        this.table = table;
+        this.slot = slot;
+        this.name = null;
+        this.employer = null;
+    }
+
+    //MODIFIES: this
+    //EFFECTS: Copies the state of this citizen's slot back into this citizen and stops viewing the table.
+    void detach() {
+        if (table != null) {
+            name = table.getName(slot);
+            isWorking = table.isWorking(slot);
+            employer = table.getBuilding(slot);
+            table = null;
+        }
     }
 
     //EFFECTS: Returns this Citizen as a JSONObject.
     public JSONObject toJson() {
         JSONObject json = new JSONObject();
-        json.put("name", name);
-        json.put("isWorking", isWorking);
+        json.put("name", getName());
+        json.put("isWorking", isWorking());
         return json;
     }
+
+    @Override
+    //EFFECTS: Writes this citizen to out as a JSON object, the same as toJson().
+    public void writeJson(JsonOutput out) throws IOException {
+        writeJson(out, getName(), isWorking());
+    }
+
+    //EFFECTS: Writes a citizen with name and isWorking to out as a JSON object.
+    static void writeJson(JsonOutput out, String name, boolean isWorking) throws IOException {
+        out.beginObject();
+        out.name("name").value(name);
+        out.name("isWorking").value(isWorking);
+        out.endObject();
+    }
 }
@@ -0,0 +1,464 @@
+package model;
+
+import persistence.JsonOutput;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Represents the citizens of a village stored column by column instead of one object per citizen.
+// Every citizen owns a slot, and each slot has an interned name id and a bit in the packed employment bitset,
+// the building each slot is assigned to is kept by the table's EmploymentRegistry.
+// Names are counted by how many slots use them: a name nobody uses any more is dropped and its id reused,
+// so renaming and removing citizens never grows the name table.
+// Slots are reused when citizens leave the village, the village order of the citizens is kept as an array of slots,
+// and each slot remembers its position in that order so a citizen's position is found without a search.
+// Citizen objects are only made when asked for, they are views over a slot of this table.
+// The table only keeps a weak reference to each view, so a view lives as long as someone else holds it: while it does,
+// asking for the slot again returns the same view, and views nobody holds cost nothing once collected.
+// The compact JSON of a citizen only depends on its name id and employment bit, so it is cached once per name and
+// bit and shared by every citizen with the same name: renaming or hiring a citizen just picks another fragment.
+// Buildings cache the JSON of their workers' positions, orderVersion() changes whenever positions shift.
+class CitizenTable {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final List<String> names;
+    private final Map<String, Integer> nameIds;
+    private int[] nameUses;
+    private int[] freeNames;
+    private int freeNameCount;
+    private final ReferenceQueue<Citizen> collected;
+    private final EmploymentRegistry employment;
+
+    private int[] nameOf;
+    private View[] views;
+    private long[] working;
+    private int[] order;
+    private int[] positionOf;
+    private int size;
+    private int[] freeSlots;
+    private int freeCount;
+    private int slotCount;
+    private String[][] fragments;
+    private int orderVersion;
+
+    //EFFECTS: makes an empty table with room for a few citizens.
+    CitizenTable() {
+        this.names = new ArrayList<>();
+        this.nameIds = new HashMap<>();
+        this.nameUses = new int[INITIAL_CAPACITY];
+        this.freeNames = new int[INITIAL_CAPACITY];
+        this.collected = new ReferenceQueue<>();
+        this.employment = new EmploymentRegistry(INITIAL_CAPACITY);
+        this.nameOf = new int[INITIAL_CAPACITY];
+        this.views = new View[INITIAL_CAPACITY];
+        this.working = new long[1];
+        this.order = new int[INITIAL_CAPACITY];
+        this.positionOf = new int[INITIAL_CAPACITY];
+        this.freeSlots = new int[INITIAL_CAPACITY];
+        this.fragments = new String[INITIAL_CAPACITY][];
+    }
+
+    //REQUIRES: citizen !null and is not already in a table.
+    //MODIFIES: this, citizen
+    //EFFECTS: copies citizen into a free slot at the end of the village order, citizen becomes a view of that slot.
+    void add(Citizen citizen) {
+        insert(size, citizen);
+    }
+
+    //REQUIRES: name !null
+    //MODIFIES: this
+    //EFFECTS: adds an unassigned citizen named name in a free slot at the end of the village order,
+    //         without making a Citizen view for it.
+    void add(String name, boolean isWorking) {
+        int slot = allocateSlot();
+        nameOf[slot] = intern(name);
+        employment.setEmployer(slot, null);
+        setWorking(slot, isWorking);
+        ensureOrderCapacity(size + 1);
+        positionOf[slot] = size;
+        order[size++] = slot;
+    }
+
+    //REQUIRES: 0 <= index <= size(), citizen !null and is not already in a table.
+    //MODIFIES: this, citizen
+    //EFFECTS: copies citizen into a free slot at index in the village order, citizen becomes a view of that slot.
+    void insert(int index, Citizen citizen) {
+        int slot = allocateSlot();
+        nameOf[slot] = intern(citizen.getName());
+        employment.setEmployer(slot, citizen.getEmployer());
+        setWorking(slot, citizen.isWorking());
+        ensureOrderCapacity(size + 1);
+        System.arraycopy(order, index, order, index + 1, size - index);
+        order[index] = slot;
+        if (index < size) {
+            orderVersion++;
+        }
+        size++;
+        renumber(index);
+        citizen.attach(this, slot);
+        views[slot] = new View(citizen, slot, collected);
+    }
+
+    //REQUIRES: 0 <= index < size()
+    //MODIFIES: this
+    //EFFECTS: removes the citizen at index from the village order and frees its slot,
+    //         returns the citizen as a stand-alone Citizen holding its last state.
+    Citizen removeAt(int index) {
+        int slot = order[index];
+        Citizen removed = view(slot);
+        removed.detach();
+        views[slot] = null;
+        System.arraycopy(order, index + 1, order, index, size - index - 1);
+        size--;
+        orderVersion++;
+        renumber(index);
+        releaseSlot(slot);
+        return removed;
+    }
+
+    //MODIFIES: this
+    //EFFECTS: removes every citizen, citizens already handed out keep their last state.
+    void clear() {
+        for (int slot = 0; slot < slotCount; slot++) {
+            Citizen c = views[slot] == null ? null : views[slot].get();
+            if (c != null) {
+                c.detach();
+            }
+        }
+        Arrays.fill(views, null);
+        names.clear();
+        nameIds.clear();
+        Arrays.fill(nameUses, 0);
+        freeNameCount = 0;
+        Arrays.fill(fragments, null);
+        size = 0;
+        orderVersion++;
+        freeCount = 0;
+        slotCount = 0;
+        Arrays.fill(working, 0L);
+        employment.clear();
+    }
+
+    int size() {
+        return size;
+    }
+
+    //REQUIRES: 0 <= index < size()
+    //EFFECTS: returns the slot of the citizen at index in the village order.
+    int slotAt(int index) {
+        return order[index];
+    }
+
+    //EFFECTS: returns the position of citizen in the village order, or -1 if it is not a view of this table.
+    int indexOf(Citizen citizen) {
+        return citizen.isViewOf(this) ? positionOf[citizen.getSlot()] : -1;
+    }
+
+    //MODIFIES: this
+    //EFFECTS: records the position of every citizen from index to the end of the village order.
+    private void renumber(int index) {
+        for (int i = index; i < size; i++) {
+            positionOf[order[i]] = i;
+        }
+    }
+
+    //MODIFIES: this
+    //EFFECTS: returns the Citizen view of slot, the one already handed out if it is still held somewhere,
+    //         otherwise a new one.
+    Citizen view(int slot) {
+        forgetCollected();
+        Citizen c = views[slot] == null ? null : views[slot].get();
+        if (c == null) {
+            c = new Citizen(this, slot);
+            views[slot] = new View(c, slot, collected);
+        }
+        return c;
+    }
+
+    //MODIFIES: this
+    //EFFECTS: drops the references to views that have been garbage collected.
+    private void forgetCollected() {
+        for (View v = (View) collected.poll(); v != null; v = (View) collected.poll()) {
+            if (views[v.slot] == v) {
+                views[v.slot] = null;
+            }
+        }
+    }
+
+    String getName(int slot) {
+        return names.get(nameOf[slot]);
+    }
+
+    //MODIFIES: this
+    //EFFECTS: sets the name of the citizen in slot, reusing the id of an equal name if there is one,
+    //         and drops the old name if no other citizen has it.
+    void setName(int slot, String name) {
+        int old = nameOf[slot];
+        nameOf[slot] = intern(name);
+        releaseName(old);
+        invalidateEmployer(slot);
+    }
+
+    boolean isWorking(int slot) {
+        return (working[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    //MODIFIES: this
+    //EFFECTS: sets the employment bit of slot and keeps the registry's index of unemployed citizens up to date.
+    void setWorking(int slot, boolean isWorking) {
+        if (isWorking) {
+            working[slot >>> 6] |= 1L << slot;
+        } else {
+            working[slot >>> 6] &= ~(1L << slot);
+        }
+        employment.setIdle(slot, !isWorking);
+        invalidateEmployer(slot);
+    }
+
+    //EFFECTS: returns the compact JSON of the citizen in slot, made once per name and employment bit.
+    String fragment(int slot) {
+        int id = nameOf[slot];
+        int bit = isWorking(slot) ? 1 : 0;
+        if (id >= fragments.length) {
+            fragments = Arrays.copyOf(fragments, Math.max(id + 1, fragments.length * 2));
+        }
+        if (fragments[id] == null) {
+            fragments[id] = new String[2];
+        }
+        if (fragments[id][bit] == null) {
+            String name = names.get(id);
+            boolean isWorking = bit == 1;
+            fragments[id][bit] = JsonOutput.compact(out -> Citizen.writeJson(out, name, isWorking));
+        }
+        return fragments[id][bit];
+    }
+
+    //EFFECTS: returns a number that changes every time citizens move to another position in the village order.
+    int orderVersion() {
+        return orderVersion;
+    }
+
+    //EFFECTS: tells the building the citizen in slot works in, if any, that its JSON has changed.
+    private void invalidateEmployer(int slot) {
+        Building employer = employment.getEmployer(slot);
+        if (employer != null) {
+            employer.invalidateFragment();
+        }
+    }
+
+    //EFFECTS: returns the building the citizen in slot is assigned to, null if there is none.
+    Building getBuilding(int slot) {
+        return employment.getEmployer(slot);
+    }
+
+    //MODIFIES: this
+    //EFFECTS: assigns the citizen in slot to building, null clears the assignment.
+    void setBuilding(int slot, Building building) {
+        employment.setEmployer(slot, building);
+    }
+
+    //EFFECTS: returns the number of citizens in the table that are not working.
+    int countIdle() {
+        return employment.idleCount();
+    }
+
+    //EFFECTS: returns every name some citizen has, each once, in the order of their ids.
+    //         Position i holds the name numbered i by nameIdsInOrder().
+    String[] names() {
+        String[] inUse = new String[nameIds.size()];
+        int next = 0;
+        for (String name : names) {
+            if (name != null) {
+                inUse[next++] = name;
+            }
+        }
+        return inUse;
+    }
+
+    //EFFECTS: returns the name of every citizen, in village order, as its position in names().
+    int[] nameIdsInOrder() {
+        int[] dense = new int[names.size()];
+        int next = 0;
+        for (int id = 0; id < dense.length; id++) {
+            if (names.get(id) != null) {
+                dense[id] = next++;
+            }
+        }
+        int[] ids = new int[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = dense[nameOf[order[i]]];
+        }
+        return ids;
+    }
+
+    //EFFECTS: returns the employment bit of every citizen, in village order.
+    BitSet workingInOrder() {
+        BitSet bits = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            if (isWorking(order[i])) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+
+    //EFFECTS: returns, for every slot in use, the position of its citizen in the village order.
+    int[] positionsBySlot() {
+        return Arrays.copyOf(positionOf, slotCount);
+    }
+
+    EmploymentRegistry getEmployment() {
+        return employment;
+    }
+
+    //EFFECTS: returns a List of the citizens in village order backed by this table,
+    //         finding the position of a citizen by its slot instead of comparing it with every citizen.
+    List<Citizen> asList() {
+        return new AbstractList<Citizen>() {
+            @Override
+            public Citizen get(int index) {
+                checkIndex(index);
+                return view(order[index]);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public void add(int index, Citizen citizen) {
+                insert(index, citizen);
+                modCount++;
+            }
+
+            @Override
+            public Citizen remove(int index) {
+                checkIndex(index);
+                modCount++;
+                return removeAt(index);
+            }
+
+            @Override
+            public void clear() {
+                CitizenTable.this.clear();
+                modCount++;
+            }
+
+            @Override
+            public int indexOf(Object citizen) {
+                return citizen instanceof Citizen ? CitizenTable.this.indexOf((Citizen) citizen) : -1;
+            }
+
+            @Override
+            public int lastIndexOf(Object citizen) {
+                return indexOf(citizen);
+            }
+
+            @Override
+            public boolean contains(Object citizen) {
+                return indexOf(citizen) != -1;
+            }
+        };
+    }
+
+    //EFFECTS: throws IndexOutOfBoundsException if index is not a position in the village order.
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    //MODIFIES: this
+    //EFFECTS: returns the id of name and counts one more use of it,
+    //         giving it a free id, or a new one, if no citizen has it yet.
+    private int intern(String name) {
+        Integer id = nameIds.get(name);
+        if (id == null) {
+            id = freeNameCount > 0 ? freeNames[--freeNameCount] : names.size();
+            if (id == names.size()) {
+                names.add(name);
+                if (id == nameUses.length) {
+                    nameUses = Arrays.copyOf(nameUses, id * 2);
+                }
+            } else {
+                names.set(id, name);
+            }
+            nameIds.put(name, id);
+        }
+        nameUses[id]++;
+        return id;
+    }
+
+    //MODIFIES: this
+    //EFFECTS: counts one less use of the name with id, dropping the name once no citizen has it.
+    private void releaseName(int id) {
+        if (--nameUses[id] > 0) {
+            return;
+        }
+        nameIds.remove(names.get(id));
+        names.set(id, null);
+        if (id < fragments.length) {
+            fragments[id] = null;
+        }
+        if (freeNameCount == freeNames.length) {
+            freeNames = Arrays.copyOf(freeNames, freeNames.length * 2);
+        }
+        freeNames[freeNameCount++] = id;
+    }
+
+    //MODIFIES: this
+    //EFFECTS: returns a free slot, growing the columns if every slot is in use.
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            freeCount--;
+            return freeSlots[freeCount];
+        }
+        if (slotCount == nameOf.length) {
+            int capacity = nameOf.length * 2;
+            nameOf = Arrays.copyOf(nameOf, capacity);
+            views = Arrays.copyOf(views, capacity);
+            positionOf = Arrays.copyOf(positionOf, capacity);
+            working = Arrays.copyOf(working, (capacity + 63) >>> 6);
+            employment.ensureCapacity(capacity);
+        }
+        return slotCount++;
+    }
+
+    //MODIFIES: this
+    //EFFECTS: puts slot back on the free list.
+    private void releaseSlot(int slot) {
+        working[slot >>> 6] &= ~(1L << slot);
+        employment.release(slot);
+        releaseName(nameOf[slot]);
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    //MODIFIES: this
+    //EFFECTS: grows the order array so it can hold at least capacity slots.
+    private void ensureOrderCapacity(int capacity) {
+        if (capacity > order.length) {
+            order = Arrays.copyOf(order, Math.max(capacity, order.length * 2));
+        }
+    }
+
+    // A weak reference to the view of a slot, which remembers the slot so it can be dropped once collected.
+    private static class View extends WeakReference<Citizen> {
+        private final int slot;
+
+        View(Citizen citizen, int slot, ReferenceQueue<Citizen> queue) {
+            super(citizen, queue);
+            this.slot = slot;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package model;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Represents an EventClock that trades resolution for speed: a daemon thread copies the time from another clock
+// into a volatile field every period, and reading the clock just reads that field.
+public class CoarseClock implements EventClock {
+    private final EventClock source;
+    private final ScheduledExecutorService ticker;
+    private volatile long now;
+
+    //REQUIRES: source !null, periodMillis > 0
+    //EFFECTS: Makes a clock that refreshes from source every periodMillis milliseconds until it is closed.
+    CoarseClock(EventClock source, long periodMillis) {
+        this.source = source;
+        this.now = source.nowNanos();
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "event-clock");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(this::tick, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public long nowNanos() {
+        return now;
+    }
+
+    //MODIFIES: this
+    //EFFECTS: Stops refreshing the clock, it keeps returning the last time read.
+    public void close() {
+        ticker.shutdownNow();
+    }
+
+    //MODIFIES: this
+    //EFFECTS: Copies the current time of source.
+    private void tick() {
+        now = source.nowNanos();
+    }
+}
@@ -0,0 +1,60 @@
+package model;
+
+// Represents one state-changing operation on a village, recorded so the village can be rebuilt by replaying it.
+// A command refers to citizens and buildings by their position in the village, and keeps at most two numbers
+// and two strings, what they mean depends on the type:
+//     BUILD            text: building type, name: building name, first: wood cost, second: stone cost
+//     HIRE             first: citizen index, second: building index
+//     FIRE             first: building index
+//     RENAME_CITIZEN   first: citizen index, name: new name
+//     RENAME_BUILDING  first: building index, name: new name
+//     ADD_CITIZEN      name: citizen name, first: 1 if the citizen is working, otherwise 0
+//     REMOVE_CITIZEN   first: citizen index
+//     END_TURN         nothing
+//     ADVANCE          first: number of turns
+//     CHANGE_RESOURCE  first: Resource ordinal, second: amount
+//     UPDATE_RESOURCES nothing
+public class Command {
+    private final CommandType type;
+    private final int first;
+    private final int second;
+    private final String text;
+    private final String name;
+
+    //REQUIRES: type !null, the other arguments match the layout of type (unused numbers are 0, strings null)
+    //EFFECTS: Makes a command of type with the given arguments.
+    public Command(CommandType type, int first, int second, String text, String name) {
+        this.type = type;
+        this.first = first;
+        this.second = second;
+        this.text = text;
+        this.name = name;
+    }
+
+    public CommandType getType() {
+        return type;
+    }
+
+    public int getFirst() {
+        return first;
+    }
+
+    public int getSecond() {
+        return second;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    //REQUIRES: village is in the state the command was recorded in.
+    //MODIFIES: village
+    //EFFECTS: Applies this command to village again.
+    public void applyTo(Village village) {
+        type.apply(village, this);
+    }
+}
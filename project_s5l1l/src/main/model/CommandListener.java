@@ -0,0 +1,9 @@
+package model;
+
+// Represents something that wants to be told about every command applied to a village,
+// such as a journal the village can be rebuilt from.
+public interface CommandListener {
+
+    //EFFECTS: Called once for each command applied to the village, in the order they are applied.
+    void commandApplied(Command command);
+}
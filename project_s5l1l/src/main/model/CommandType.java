@@ -0,0 +1,79 @@
+package model;
+
+// Represents the kinds of state-changing operations a village records as commands,
+// each one knows how to apply a command of its kind to a village again.
+// New types go at the end, journals store types by ordinal.
+public enum CommandType {
+    BUILD {
+        @Override
+        void apply(Village village, Command command) {
+            village.build(command.getText(), command.getName(), command.getFirst(), command.getSecond());
+        }
+    },
+    HIRE {
+        @Override
+        void apply(Village village, Command command) {
+            Building building = village.getBuildings().get(command.getSecond());
+            village.hire(village.getCitizens().get(command.getFirst()), building);
+        }
+    },
+    FIRE {
+        @Override
+        void apply(Village village, Command command) {
+            village.fire(village.getBuildings().get(command.getFirst()));
+        }
+    },
+    RENAME_CITIZEN {
+        @Override
+        void apply(Village village, Command command) {
+            village.renameCitizen(command.getFirst(), command.getName());
+        }
+    },
+    RENAME_BUILDING {
+        @Override
+        void apply(Village village, Command command) {
+            village.renameBuilding(command.getFirst(), command.getName());
+        }
+    },
+    ADD_CITIZEN {
+        @Override
+        void apply(Village village, Command command) {
+            village.addCitizen(new Citizen(command.getName(), command.getFirst() != 0));
+        }
+    },
+    REMOVE_CITIZEN {
+        @Override
+        void apply(Village village, Command command) {
+            village.removeCitizen(command.getFirst());
+        }
+    },
+    END_TURN {
+        @Override
+        void apply(Village village, Command command) {
+            village.update();
+        }
+    },
+    ADVANCE {
+        @Override
+        void apply(Village village, Command command) {
+            village.advance(command.getFirst());
+        }
+    },
+    CHANGE_RESOURCE {
+        @Override
+        void apply(Village village, Command command) {
+            village.changeResource(Resource.values()[command.getFirst()], command.getSecond());
+        }
+    },
+    UPDATE_RESOURCES {
+        @Override
+        void apply(Village village, Command command) {
+            village.getUpdateResources();
+        }
+    };
+
+    //REQUIRES: command is of this type and was recorded by a village in the same state as village.
+    //MODIFIES: village
+    //EFFECTS: Applies command to village.
+    abstract void apply(Village village, Command command);
+}
@@ -0,0 +1,233 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Keeps track of who works where in a village, by citizen slot of the village's CitizenTable.
+// For every slot it records the id of the building employing the citizen, and it keeps an index of the
+// slots of citizens that are not working, so that adding, removing or finding any unemployed citizen
+// takes constant time however large the village is.
+// The unemployed index is a doubly linked list threaded through two int columns, so it keeps citizens
+// in the order they became unemployed, holds each slot at most once, and never grows past the number of slots.
+// A building only has an id while someone works in it: the id is given back once its last worker leaves,
+// so buildings that were demolished or emptied are not kept alive by the registry.
+class EmploymentRegistry {
+    static final int NO_BUILDING = -1;
+    private static final int NONE = -1;
+    private static final int NOT_IDLE = -2;
+    private static final int INITIAL_BUILDINGS = 8;
+
+    private final List<Building> buildings;
+    private final Map<Building, Integer> buildingIds;
+    private int[] employerOf;
+    private int[] workerCount;
+    private int[] freeIds;
+    private int freeIdCount;
+    private int[] idlePrevious;
+    private int[] idleNext;
+    private int idleHead;
+    private int idleTail;
+    private int idleCount;
+    private int idleChanges;
+
+    //EFFECTS: Makes a registry with room for capacity citizen slots, nobody is employed or idle.
+    EmploymentRegistry(int capacity) {
+        this.buildings = new ArrayList<>();
+        this.buildingIds = new IdentityHashMap<>();
+        this.employerOf = new int[capacity];
+        this.workerCount = new int[INITIAL_BUILDINGS];
+        this.freeIds = new int[INITIAL_BUILDINGS];
+        this.idlePrevious = new int[capacity];
+        this.idleNext = new int[capacity];
+        Arrays.fill(employerOf, NO_BUILDING);
+        Arrays.fill(idlePrevious, NOT_IDLE);
+        clearIdle();
+    }
+
+    //MODIFIES: this
+    //EFFECTS: Grows the registry so it has room for at least capacity citizen slots.
+    void ensureCapacity(int capacity) {
+        int old = employerOf.length;
+        if (capacity > old) {
+            employerOf = Arrays.copyOf(employerOf, capacity);
+            idlePrevious = Arrays.copyOf(idlePrevious, capacity);
+            idleNext = Arrays.copyOf(idleNext, capacity);
+            Arrays.fill(employerOf, old, capacity, NO_BUILDING);
+            Arrays.fill(idlePrevious, old, capacity, NOT_IDLE);
+        }
+    }
+
+    //EFFECTS: Returns the building employing the citizen in slot, null if there is none.
+    Building getEmployer(int slot) {
+        int id = employerOf[slot];
+        return id == NO_BUILDING ? null : buildings.get(id);
+    }
+
+    //MODIFIES: this
+    //EFFECTS: Records that building employs the citizen in slot, null records that nobody does.
+    void setEmployer(int slot, Building building) {
+        int id = idOf(building);
+        if (id != NO_BUILDING) {
+            workerCount[id]++;
+        }
+        leave(employerOf[slot]);
+        employerOf[slot] = id;
+    }
+
+    //EFFECTS: Returns the number of buildings that employ at least one citizen.
+    int buildingCount() {
+        return buildingIds.size();
+    }
+
+    boolean isIdle(int slot) {
+        return idlePrevious[slot] != NOT_IDLE;
+    }
+
+    //MODIFIES: this
+    //EFFECTS: Adds slot to the end of or removes it from the unemployed index, nothing happens if it is
+    //         already there or already gone.
+    void setIdle(int slot, boolean isIdle) {
+        if (isIdle && !isIdle(slot)) {
+            linkIdle(slot);
+        } else if (!isIdle && isIdle(slot)) {
+            unlinkIdle(slot);
+        }
+    }
+
+    int idleCount() {
+        return idleCount;
+    }
+
+    //REQUIRES: 0 <= index < idleCount()
+    //EFFECTS: Returns the slot at index in the unemployed index, walking it from the start.
+    //         Readers going through the index in order should follow nextIdle instead.
+    int idleSlotAt(int index) {
+        int slot = idleHead;
+        for (int i = 0; i < index; i++) {
+            slot = idleNext[slot];
+        }
+        return slot;
+    }
+
+    //REQUIRES: isIdle(slot)
+    //EFFECTS: Returns the slot after slot in the unemployed index, or -1 if slot is the last one.
+    int nextIdle(int slot) {
+        return idleNext[slot];
+    }
+
+    //EFFECTS: Returns a number that changes every time the unemployed index changes, so a reader keeping its own
+    //         position in the index can tell when that position is no longer valid.
+    int idleChanges() {
+        return idleChanges;
+    }
+
+    //EFFECTS: Returns the slot of the citizen unemployed the longest, or -1 if everyone is working.
+    int anyIdle() {
+        return idleHead;
+    }
+
+    //MODIFIES: this
+    //EFFECTS: Forgets everything recorded about slot.
+    void release(int slot) {
+        setIdle(slot, false);
+        leave(employerOf[slot]);
+        employerOf[slot] = NO_BUILDING;
+    }
+
+    //MODIFIES: this
+    //EFFECTS: Forgets everything recorded about every slot.
+    void clear() {
+        Arrays.fill(employerOf, NO_BUILDING);
+        buildings.clear();
+        buildingIds.clear();
+        Arrays.fill(workerCount, 0);
+        freeIdCount = 0;
+        Arrays.fill(idlePrevious, NOT_IDLE);
+        clearIdle();
+    }
+
+    //MODIFIES: this
+    //EFFECTS: Empties the unemployed index.
+    private void clearIdle() {
+        idleHead = NONE;
+        idleTail = NONE;
+        idleCount = 0;
+        idleChanges++;
+    }
+
+    //REQUIRES: slot is not in the unemployed index.
+    //MODIFIES: this
+    //EFFECTS: Appends slot to the unemployed index.
+    private void linkIdle(int slot) {
+        idlePrevious[slot] = idleTail;
+        idleNext[slot] = NONE;
+        if (idleTail == NONE) {
+            idleHead = slot;
+        } else {
+            idleNext[idleTail] = slot;
+        }
+        idleTail = slot;
+        idleCount++;
+        idleChanges++;
+    }
+
+    //REQUIRES: slot is in the unemployed index.
+    //MODIFIES: this
+    //EFFECTS: Unlinks slot from the unemployed index.
+    private void unlinkIdle(int slot) {
+        int previous = idlePrevious[slot];
+        int next = idleNext[slot];
+        if (previous == NONE) {
+            idleHead = next;
+        } else {
+            idleNext[previous] = next;
+        }
+        if (next == NONE) {
+            idleTail = previous;
+        } else {
+            idlePrevious[next] = previous;
+        }
+        idlePrevious[slot] = NOT_IDLE;
+        idleCount--;
+        idleChanges++;
+    }
+
+    //MODIFIES: this
+    //EFFECTS: Returns the id of building, giving it a free id if it has none,
+    //         returns NO_BUILDING if building is null.
+    private int idOf(Building building) {
+        if (building == null) {
+            return NO_BUILDING;
+        }
+        Integer id = buildingIds.get(building);
+        if (id == null) {
+            if (freeIdCount > 0) {
+                id = freeIds[--freeIdCount];
+                buildings.set(id, building);
+            } else {
+                id = buildings.size();
+                buildings.add(building);
+                if (id == workerCount.length) {
+                    workerCount = Arrays.copyOf(workerCount, id * 2);
+                    freeIds = Arrays.copyOf(freeIds, id * 2);
+                }
+            }
+            buildingIds.put(building, id);
+        }
+        return id;
+    }
+
+    //MODIFIES: this
+    //EFFECTS: Records that a citizen stopped working in the building with id, giving the id back
+    //         if that was its last worker. Nothing happens for NO_BUILDING.
+    private void leave(int id) {
+        if (id != NO_BUILDING && --workerCount[id] == 0) {
+            buildingIds.remove(buildings.get(id));
+            buildings.set(id, null);
+            freeIds[freeIdCount++] = id;
+        }
+    }
+}
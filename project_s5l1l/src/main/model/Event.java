@@ -5,7 +5,6 @@
 
 package model;
 
-import java.util.Calendar;
 import java.util.Date;
 
 
@@ -14,8 +13,17 @@ import java.util.Date;
  */
 public class Event {
     private static final int HASH_CONSTANT = 13;
-    private Date dateLogged;
-    private String description;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static volatile EventClock clock = EventClock.WALL;
+    private final long timestamp;
+    private final EventMessage message;
+    private final Object first;
+    private final Object second;
+    private final int firstNumber;
+    private final int secondNumber;
+    private final boolean numeric;
+    private volatile Date dateLogged;
+    private volatile String description;
 
     /**
      * Creates an event with the given description
@@ -24,26 +32,153 @@ public class Event {
      * @param description a description of the event
      */
     public Event(String description) {
-        dateLogged = Calendar.getInstance().getTime();
+        this(null, null, null, 0, 0, false);
         this.description = description;
     }
 
+    /**
+     * Creates an event whose description is message formatted with
+     * the given arguments, and the current date/time stamp.
+     * The description is only formatted when it is first read.
+     *
+     * @param message the template of the description
+     * @param first   the first argument of the template
+     * @param second  the second argument of the template, or null
+     */
+    public Event(EventMessage message, Object first, Object second) {
+        this(message, first, second, 0, 0, false);
+    }
+
+    /**
+     * Creates an event whose description is message formatted with
+     * the given numbers, and the current date/time stamp.
+     * The description is only formatted when it is first read.
+     *
+     * @param message      the template of the description
+     * @param firstNumber  the first argument of the template
+     * @param secondNumber the second argument of the template, ignored if the template has one
+     */
+    public Event(EventMessage message, int firstNumber, int secondNumber) {
+        this(message, null, null, firstNumber, secondNumber, true);
+    }
+
+    /**
+     * Creates an event with every field given and the current date/time stamp.
+     */
+    private Event(EventMessage message, Object first, Object second, int firstNumber, int secondNumber,
+                  boolean numeric) {
+        this.timestamp = clock.nowNanos();
+        this.message = message;
+        this.first = first;
+        this.second = second;
+        this.firstNumber = firstNumber;
+        this.secondNumber = secondNumber;
+        this.numeric = numeric;
+    }
+
+    /**
+     * Sets the clock new events take their time stamp from.
+     * The default is EventClock.WALL.
+     *
+     * @param eventClock the clock to use
+     */
+    public static void setClock(EventClock eventClock) {
+        clock = eventClock;
+    }
+
     /**
      * Gets the date of this event (includes time).
+     * The Date is only made the first time it is asked for.
      *
      * @return the date of the event
      */
     public Date getDate() {
-        return dateLogged;
+        Date date = dateLogged;
+        if (date == null) {
+            date = new Date(Math.floorDiv(timestamp, NANOS_PER_MILLI));
+            dateLogged = date;
+        }
+        return date;
+    }
+
+    /**
+     * Gets the time stamp of this event.
+     *
+     * @return the time the event was made, in nanoseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
     }
 
     /**
      * Gets the description of this event.
+     * May be called from any thread: the arguments never change, so threads
+     * that format the description at the same time all get the same text.
      *
      * @return the description of the event
      */
     public String getDescription() {
-        return description;
+        String text = description;
+        if (text == null) {
+            text = numeric ? message.format(firstNumber, secondNumber) : message.format(first, second);
+            description = text;
+        }
+        return text;
+    }
+
+    /**
+     * Gets the template this event's description is made from.
+     *
+     * @return the template, or null if the event was made from a description
+     */
+    public EventMessage getMessage() {
+        return message;
+    }
+
+    /**
+     * Tells whether this event was made from a template and numbers.
+     *
+     * @return true if the arguments are getFirstNumber and getSecondNumber,
+     *         false if they are getFirst and getSecond
+     */
+    public boolean isNumeric() {
+        return numeric;
+    }
+
+    /**
+     * Gets the first argument of the template of an event made from objects.
+     *
+     * @return the first argument, or null
+     */
+    public Object getFirst() {
+        return first;
+    }
+
+    /**
+     * Gets the second argument of the template of an event made from objects.
+     *
+     * @return the second argument, or null
+     */
+    public Object getSecond() {
+        return second;
+    }
+
+    /**
+     * Gets the first argument of the template of an event made from numbers.
+     *
+     * @return the first argument
+     */
+    public int getFirstNumber() {
+        return firstNumber;
+    }
+
+    /**
+     * Gets the second argument of the template of an event made from numbers.
+     *
+     * @return the second argument
+     */
+    public int getSecondNumber() {
+        return secondNumber;
     }
 
     @Override
@@ -58,17 +193,17 @@ public class Event {
 
         Event otherEvent = (Event) other;
 
-        return (this.dateLogged.equals(otherEvent.dateLogged)
-                && this.description.equals(otherEvent.description));
+        return (this.timestamp == otherEvent.timestamp
+                && this.getDescription().equals(otherEvent.getDescription()));
     }
 
     @Override
     public int hashCode() {
-        return (HASH_CONSTANT * dateLogged.hashCode() + description.hashCode());
+        return (HASH_CONSTANT * Long.hashCode(timestamp) + getDescription().hashCode());
     }
 
     @Override
     public String toString() {
-        return dateLogged.toString() + "\n" + description;
+        return getDate().toString() + "\n" + getDescription();
     }
 }
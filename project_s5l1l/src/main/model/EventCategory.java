@@ -0,0 +1,53 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Represents the kinds of events the model logs, each with its own sampling rate.
+// STRUCTURE events change the shape of the village (founding, buildings, citizens joining, leaving or starving,
+// saves), WORKFORCE events change who works where, RESOURCES events report resource totals and TURN events
+// report the work done every turn.
+// Whether an event is kept is decided before the event is made (see EventLog.log), so a category that is
+// switched off costs no allocation at all.
+public enum EventCategory {
+    STRUCTURE,
+    WORKFORCE,
+    RESOURCES,
+    TURN;
+
+    public static final int OFF = 0;
+    public static final int ALL = 1;
+
+    private final AtomicLong seen = new AtomicLong();
+    private volatile int sampleEvery = ALL;
+
+    //REQUIRES: every >= 0
+    //MODIFIES: this
+    //EFFECTS: Keeps one event of this category in every events, OFF keeps none and ALL keeps all of them.
+    public void setSampling(int every) {
+        sampleEvery = every;
+        seen.set(0);
+    }
+
+    public int getSampling() {
+        return sampleEvery;
+    }
+
+    //MODIFIES: this
+    //EFFECTS: Returns whether the next event of this category should be logged.
+    //         Only sampled categories touch the shared counter.
+    public boolean sample() {
+        int every = sampleEvery;
+        if (every <= ALL) {
+            return every == ALL;
+        }
+        return seen.getAndIncrement() % every == 0;
+    }
+
+    //MODIFIES: every category
+    //EFFECTS: Sets every category back to logging all of its events.
+    public static void logAll() {
+        for (EventCategory category : values()) {
+            category.setSampling(ALL);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package model;
+
+// Represents the source of the time stamps of events, as nanoseconds since the epoch.
+// WALL reads the system clock at millisecond resolution, MONOTONIC never goes backwards and has nanosecond
+// resolution, and coarse clocks are read from a value refreshed in the background, which is the cheapest to read.
+public interface EventClock {
+    EventClock WALL = () -> System.currentTimeMillis() * 1_000_000L;
+
+    EventClock MONOTONIC = new EventClock() {
+        private final long base = System.currentTimeMillis() * 1_000_000L - System.nanoTime();
+
+        @Override
+        public long nowNanos() {
+            return base + System.nanoTime();
+        }
+    };
+
+    //EFFECTS: Returns the current time in nanoseconds since the epoch.
+    long nowNanos();
+
+    //REQUIRES: periodMillis > 0
+    //EFFECTS: Returns a clock that reads source every periodMillis milliseconds on a daemon thread
+    //         and returns the last value read.
+    static CoarseClock coarse(EventClock source, long periodMillis) {
+        return new CoarseClock(source, periodMillis);
+    }
+}
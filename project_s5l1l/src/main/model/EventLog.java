@@ -6,28 +6,337 @@
 package model;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Represents a log of alarm system events.
  * We use the Singleton Design Pattern to ensure that there is only
  * one EventLog in the system and that the system has global access
  * to the single instance of the EventLog.
+ * A thread can be bound to a separate EventLog (see World), in which
+ * case getInstance() returns that log on that thread instead.
+ * The log is safe to use from many threads without locking. Every
+ * event gets the next sequence number from a single atomic counter.
+ * Without a capacity it is stored in its own slot of a chain of
+ * fixed-size segments, so writers never wait for each other and slots
+ * are never reused. Once a capacity is set the events are kept in a
+ * ring of capacity slots made when the capacity is set: the event with
+ * sequence number s takes slot s % capacity, replacing the event
+ * capacity events older, which is counted as dropped. An iterator
+ * reads the events that had been given sequence numbers when it was
+ * made, so it is never disturbed by events logged while it is in use;
+ * with a capacity it copies them when it is made, since their slots
+ * are reused.
+ * Listeners are told about every event as it is logged, including
+ * events that are later dropped.
  */
 public class EventLog implements Iterable<Event> {
     /**
-     * the only EventLog in the system (Singleton Design Pattern)
+     * the log each thread is bound to, if any
      */
-    private static EventLog theLog;
-    private Collection<Event> events;
+    private static final ThreadLocal<EventLog> boundLog = new ThreadLocal<>();
+    /**
+     * capacity value meaning the log keeps every event
+     */
+    public static final int UNBOUNDED = 0;
+    private static final int SEGMENT_SIZE = 1024;
+
+    private final List<EventLogListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong tail = new AtomicLong();
+    private volatile Storage storage;
+    private volatile long floor;
+    private volatile long clearedAt;
+    private volatile int capacity;
+
+    /**
+     * Holds the only EventLog in the system, made the first time
+     * getInstance() is called (Singleton Design Pattern).
+     */
+    private static class Holder {
+        private static final EventLog INSTANCE = new EventLog();
+    }
+
+    /**
+     * Where the log keeps its events, by sequence number. Storing an
+     * event that is already stored, or older than the event in its
+     * place, does nothing. A Segment is only given where the events
+     * are kept in a chain of segments, and is null otherwise.
+     */
+    private abstract static class Storage {
+        /**
+         * @return the segment reading should start from
+         */
+        abstract Segment first();
+
+        /**
+         * @return the segment storing a newly claimed sequence number should start from
+         */
+        abstract Segment last();
+
+        /**
+         * @param from a segment at or before the one holding sequence
+         * @param sequence a sequence number
+         * @return the segment holding sequence, or the last one made so far
+         */
+        abstract Segment seek(Segment from, long sequence);
+
+        /**
+         * @param sequence the sequence number of the event
+         * @param at the segment holding sequence, as returned by seek
+         * @return the event, or null if it is not stored (yet)
+         */
+        abstract Event peek(long sequence, Segment at);
+
+        /**
+         * @param sequence the sequence number of e
+         * @param e the event
+         * @param from a segment at or before the one holding sequence
+         */
+        abstract void put(long sequence, Event e, Segment from);
+
+        /**
+         * @param sequence a sequence number
+         * @return true if the event with that sequence number is no longer kept here
+         */
+        abstract boolean gone(long sequence);
+
+        /**
+         * @return true if slots are reused, so iterators must copy the events
+         */
+        abstract boolean reusesSlots();
+
+        /**
+         * Lets go of what only holds dropped events.
+         */
+        abstract void trim();
+    }
+
+    /**
+     * A fixed-size block of the slots for the events with sequence
+     * numbers base to base + SEGMENT_SIZE - 1.
+     */
+    private static class Segment {
+        private final long base;
+        private final AtomicReferenceArray<Event> events = new AtomicReferenceArray<>(SEGMENT_SIZE);
+        private final AtomicReference<Segment> next = new AtomicReference<>();
+
+        private Segment(long base) {
+            this.base = base;
+        }
+    }
+
+    /**
+     * The events of a log without a capacity, in a chain of segments
+     * that grows as events are logged. Segments that only hold events
+     * from before the log was cleared are let go.
+     */
+    private class Chain extends Storage {
+        private final AtomicReference<Segment> head;
+        private volatile Segment tailSegment;
+
+        private Chain(long base) {
+            Segment first = new Segment(base);
+            head = new AtomicReference<>(first);
+            tailSegment = first;
+        }
+
+        @Override
+        Segment first() {
+            return head.get();
+        }
+
+        @Override
+        Segment last() {
+            return tailSegment;
+        }
+
+        @Override
+        Segment seek(Segment from, long sequence) {
+            Segment segment = from;
+            Segment after = segment.next.get();
+            while (sequence >= segment.base + SEGMENT_SIZE && after != null) {
+                segment = after;
+                after = segment.next.get();
+            }
+            return segment;
+        }
+
+        @Override
+        Event peek(long sequence, Segment at) {
+            if (sequence < at.base || sequence >= at.base + SEGMENT_SIZE) {
+                return null;
+            }
+            return at.events.get((int) (sequence - at.base));
+        }
+
+        @Override
+        void put(long sequence, Event e, Segment from) {
+            Segment segment = from;
+            while (sequence >= segment.base + SEGMENT_SIZE) {
+                segment = nextSegment(segment);
+            }
+            if (sequence >= segment.base) {
+                segment.events.set((int) (sequence - segment.base), e);
+            }
+        }
+
+        @Override
+        boolean gone(long sequence) {
+            return sequence < head.get().base;
+        }
+
+        @Override
+        boolean reusesSlots() {
+            return false;
+        }
+
+        /**
+         * Gets the segment after segment, adding it to the chain if no
+         * other thread has yet. Segments only holding dropped events are
+         * let go whenever one is added.
+         *
+         * @param segment a segment in the chain
+         * @return the segment after it
+         */
+        private Segment nextSegment(Segment segment) {
+            Segment next = segment.next.get();
+            if (next == null) {
+                Segment made = new Segment(segment.base + SEGMENT_SIZE);
+                next = segment.next.compareAndSet(null, made) ? made : segment.next.get();
+                if (tailSegment.base < next.base) {
+                    tailSegment = next;
+                }
+                trim();
+            }
+            return next;
+        }
+
+        /**
+         * Moves the head of the chain past segments that only hold dropped
+         * events, keeping at least one segment.
+         */
+        @Override
+        void trim() {
+            long start = windowStart(tail.get());
+            Segment first = head.get();
+            Segment next = first.next.get();
+            while (next != null && next.base <= start) {
+                if (!head.compareAndSet(first, next)) {
+                    first = head.get();
+                } else {
+                    first = next;
+                }
+                next = first.next.get();
+            }
+        }
+    }
+
+    /**
+     * The events of a log with a capacity, in a ring of capacity slots
+     * made once. Each slot holds an event and its sequence number, EMPTY
+     * before the first event, or busy(s) while the writer of the event
+     * with sequence number s is storing it, so readers can tell which
+     * event a slot holds.
+     */
+    private static class Ring extends Storage {
+        private static final long EMPTY = -1;
+        private final AtomicReferenceArray<Event> events;
+        private final AtomicLongArray sequences;
+
+        private Ring(int capacity) {
+            events = new AtomicReferenceArray<>(capacity);
+            sequences = new AtomicLongArray(capacity);
+            for (int i = 0; i < capacity; i++) {
+                sequences.set(i, EMPTY);
+            }
+        }
+
+        private static long busy(long sequence) {
+            return EMPTY - 1 - sequence;
+        }
+
+        private int slot(long sequence) {
+            return (int) (sequence % events.length());
+        }
+
+        @Override
+        Segment first() {
+            return null;
+        }
+
+        @Override
+        Segment last() {
+            return null;
+        }
+
+        @Override
+        Segment seek(Segment from, long sequence) {
+            return null;
+        }
+
+        @Override
+        Event peek(long sequence, Segment at) {
+            int slot = slot(sequence);
+            if (sequences.get(slot) != sequence) {
+                return null;
+            }
+            Event e = events.get(slot);
+            return sequences.get(slot) == sequence ? e : null;
+        }
+
+        /**
+         * Waits while another writer is storing into the slot, then claims
+         * it unless it already holds this event or a newer one.
+         */
+        @Override
+        void put(long sequence, Event e, Segment from) {
+            int slot = slot(sequence);
+            long seen;
+            do {
+                seen = sequences.get(slot);
+                while (seen < EMPTY) {
+                    Thread.onSpinWait();
+                    seen = sequences.get(slot);
+                }
+                if (seen >= sequence) {
+                    return;
+                }
+            } while (!sequences.compareAndSet(slot, seen, busy(sequence)));
+            events.set(slot, e);
+            sequences.set(slot, sequence);
+        }
+
+        @Override
+        boolean gone(long sequence) {
+            long seen = sequences.get(slot(sequence));
+            return seen > sequence || seen < busy(sequence);
+        }
+
+        @Override
+        boolean reusesSlots() {
+            return true;
+        }
+
+        @Override
+        void trim() {
+        }
+    }
 
     /**
      * Prevent external construction.
      * (Singleton Design Pattern).
      */
     private EventLog() {
-        events = new ArrayList<Event>();
+        storage = new Chain(0);
+        capacity = UNBOUNDED;
     }
 
     /**
@@ -38,32 +347,261 @@ public class EventLog implements Iterable<Event> {
      * @return instance of EventLog
      */
     public static EventLog getInstance() {
-        if (theLog == null) {
-            theLog = new EventLog();
+        EventLog bound = boundLog.get();
+        if (bound != null) {
+            return bound;
+        }
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Creates a new EventLog that is separate from the singleton,
+     * for use by threads bound to it with bind().
+     *
+     * @return a new, empty EventLog
+     */
+    static EventLog newLog() {
+        return new EventLog();
+    }
+
+    /**
+     * Binds the current thread to log, so getInstance() returns log
+     * on this thread until the binding is replaced.
+     *
+     * @param log the log to bind to, or null to go back to the singleton
+     * @return the log the thread was bound to before, or null if none
+     */
+    static EventLog bind(EventLog log) {
+        EventLog previous = boundLog.get();
+        if (log == null) {
+            boundLog.remove();
+        } else {
+            boundLog.set(log);
         }
+        return previous;
+    }
+
+    /**
+     * Adds a listener that is told about every event logged from now on.
+     *
+     * @param listener the listener to add
+     */
+    public void addListener(EventLogListener listener) {
+        listeners.add(listener);
+    }
 
-        return theLog;
+    /**
+     * Removes a listener, it is not told about events logged from now on.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(EventLogListener listener) {
+        listeners.remove(listener);
     }
 
     /**
      * Adds an event to the event log.
+     * Safe to call from any number of threads at once. If the capacity
+     * changes while the event is stored, it is stored again wherever
+     * the log keeps its events from then on.
      *
      * @param e the event to be added
      */
     public void logEvent(Event e) {
-        events.add(e);
+        for (EventLogListener listener : listeners) {
+            listener.eventLogged(e);
+        }
+        Storage stored = storage;
+        Segment from = stored.last();
+        long sequence = tail.getAndIncrement();
+        stored.put(sequence, e, from);
+        while (storage != stored) {
+            stored = storage;
+            stored.put(sequence, e, stored.seek(stored.first(), sequence));
+        }
+    }
+
+    /**
+     * Logs an event made from message and its arguments, if the
+     * category of message samples it. The event is only made if it is
+     * logged.
+     *
+     * @param message the message of the event
+     * @param first the first argument of the message, or null
+     * @param second the second argument of the message, or null
+     */
+    public void log(EventMessage message, Object first, Object second) {
+        if (message.getCategory().sample()) {
+            logEvent(new Event(message, first, second));
+        }
+    }
+
+    /**
+     * Logs an event made from message and its numeric arguments, if the
+     * category of message samples it. The event is only made if it is
+     * logged.
+     *
+     * @param message the message of the event
+     * @param first the first number of the message
+     * @param second the second number of the message
+     */
+    public void log(EventMessage message, int first, int second) {
+        if (message.getCategory().sample()) {
+            logEvent(new Event(message, first, second));
+        }
     }
 
     /**
      * Clears the event log and logs the event.
+     * The count of dropped events is reset too.
      */
-    public void clear() {
-        events.clear();
+    public synchronized void clear() {
+        long now = tail.get();
+        floor = now;
+        clearedAt = now;
+        storage.trim();
         logEvent(new Event("Event log cleared."));
     }
 
+    /**
+     * Sets how many events the log keeps. With a capacity only the
+     * newest events are kept and older ones are dropped to make room
+     * for new ones. If more events than fit are already logged, the
+     * newest ones are kept and the rest count as dropped. Events that
+     * were already dropped are not brought back by a larger capacity.
+     * Events logged by other threads meanwhile are kept as well: those
+     * claimed before the new storage is in place are copied to it, and
+     * their writers store them again if they were not stored yet.
+     *
+     * @param capacity the number of events to keep, or UNBOUNDED to keep all
+     */
+    public synchronized void setCapacity(int capacity) {
+        long end = tail.get();
+        floor = windowStart(end);
+        this.capacity = capacity;
+        long start = windowStart(end);
+        Storage old = storage;
+        Storage made = capacity == UNBOUNDED ? new Chain(start) : new Ring(capacity);
+        storage = made;
+        long last = tail.get();
+        Segment from = old.first();
+        Segment to = made.first();
+        for (long sequence = start; sequence < last; sequence++) {
+            from = old.seek(from, sequence);
+            Event e = old.peek(sequence, from);
+            if (e != null) {
+                to = made.seek(to, sequence);
+                made.put(sequence, e, to);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of events this log keeps.
+     *
+     * @return the capacity, or UNBOUNDED if the log keeps every event
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the number of events dropped to make room for newer ones
+     * since the log was made or last cleared.
+     *
+     * @return the number of dropped events
+     */
+    public long getDroppedCount() {
+        return windowStart(tail.get()) - clearedAt;
+    }
+
+    /**
+     * Gets an iterator over the events logged when it is made, oldest
+     * first. Events logged later are not seen by the iterator.
+     *
+     * @return the iterator
+     */
     @Override
     public Iterator<Event> iterator() {
-        return events.iterator();
+        Storage stored = storage;
+        long end = tail.get();
+        Snapshot snapshot = new Snapshot(stored, windowStart(end), end);
+        if (!stored.reusesSlots()) {
+            return snapshot;
+        }
+        List<Event> copy = new ArrayList<>();
+        snapshot.forEachRemaining(copy::add);
+        return Collections.unmodifiableList(copy).iterator();
+    }
+
+    /**
+     * Gets the sequence number of the oldest event kept, if the next
+     * sequence number to be given out is end.
+     *
+     * @param end the next sequence number
+     * @return the sequence number of the oldest event kept
+     */
+    private long windowStart(long end) {
+        int keep = capacity;
+        return keep == UNBOUNDED ? floor : Math.max(floor, end - keep);
+    }
+
+    /**
+     * Iterates over the events with sequence numbers from start to end
+     * kept in stored. Events that are gone by the time they are read,
+     * because their slots were reused, the log was cleared or the
+     * capacity changed, are skipped.
+     */
+    private class Snapshot implements Iterator<Event> {
+        private final Storage stored;
+        private Segment segment;
+        private long next;
+        private final long end;
+        private Event pending;
+
+        private Snapshot(Storage stored, long start, long end) {
+            this.stored = stored;
+            this.segment = stored.first();
+            this.next = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (pending == null && next < end) {
+                pending = read(next);
+                next++;
+            }
+            return pending != null;
+        }
+
+        @Override
+        public Event next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Event e = pending;
+            pending = null;
+            return e;
+        }
+
+        /**
+         * Reads the event with sequence number sequence, waiting for it if
+         * a writer has claimed it but not yet stored it. Writers store
+         * right after claiming, so this only spins briefly.
+         *
+         * @param sequence the sequence number of the event
+         * @return the event, or null if it is gone
+         */
+        private Event read(long sequence) {
+            segment = stored.seek(segment, sequence);
+            Event e = stored.peek(sequence, segment);
+            while (e == null && storage == stored && !stored.gone(sequence)) {
+                Thread.onSpinWait();
+                segment = stored.seek(segment, sequence);
+                e = stored.peek(sequence, segment);
+            }
+            return e;
+        }
     }
 }
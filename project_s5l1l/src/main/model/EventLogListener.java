@@ -0,0 +1,10 @@
+package model;
+
+// Represents something that wants to be told about every event logged to an EventLog,
+// such as a journal that keeps events after the game exits.
+public interface EventLogListener {
+
+    //EFFECTS: Called once for each event logged, on the thread that logged it.
+    //         Implementations must be quick and must not log events themselves.
+    void eventLogged(Event event);
+}
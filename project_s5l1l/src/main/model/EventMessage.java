@@ -0,0 +1,55 @@
+package model;
+
+// Represents the message templates of the events the model logs.
+// An Event made from a template keeps the template and its arguments and only formats them into a description
+// when the description is read, so logging stays cheap on the turn path.
+// Every message belongs to an EventCategory, which decides whether events made from it are logged.
+// New messages go at the end, the journal stores messages by ordinal.
+public enum EventMessage {
+    WORKER_ADDED("A worker was added to %s", EventCategory.WORKFORCE),
+    WORKER_REMOVED("A worker was removed from %s", EventCategory.WORKFORCE),
+    NOW_WORKING("%s is now working", EventCategory.WORKFORCE),
+    RENAMED("%s was renamed to %s", EventCategory.WORKFORCE),
+    BUILT("A %s named %s was added from the village", EventCategory.STRUCTURE),
+    TOTAL_FOOD("Total Food is now: %d", EventCategory.RESOURCES),
+    TOTAL_WOOD("Total Wood is now: %d", EventCategory.RESOURCES),
+    TOTAL_STONE("Total Stone is now: %d", EventCategory.RESOURCES),
+    CITIZENS_FED("%d citizens were able to eat, Total Food is now: %d", EventCategory.TURN),
+    ADVANCED("Village advanced %d turns", EventCategory.TURN),
+    VILLAGE_CREATED("A village was created", EventCategory.STRUCTURE),
+    CITIZEN_ADDED("A Citizen was ADDED to the village", EventCategory.STRUCTURE),
+    CITIZEN_REMOVED("A Citizen was REMOVED from the village", EventCategory.STRUCTURE),
+    CITIZEN_STARVED("A citizen starved and left the village", EventCategory.STRUCTURE),
+    SAVED("Village state was saved", EventCategory.STRUCTURE),
+    CITIZEN_ATE("A citizen was able to eat", EventCategory.TURN),
+    RESOURCES_UPDATED("Resources were updated", EventCategory.TURN),
+    CITIZENS_UPDATED("Citizens were updated", EventCategory.TURN),
+    TURN_ENDED("Village updated for next turn", EventCategory.TURN);
+
+    private final String template;
+    private final EventCategory category;
+
+    //EFFECTS: Makes a message with the given String.format template in category.
+    EventMessage(String template, EventCategory category) {
+        this.template = template;
+        this.category = category;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    public EventCategory getCategory() {
+        return category;
+    }
+
+    //EFFECTS: Returns the template formatted with first and second, extra arguments are ignored.
+    String format(Object first, Object second) {
+        return String.format(template, first, second);
+    }
+
+    //EFFECTS: Returns the template formatted with the numbers first and second, extra arguments are ignored.
+    String format(int first, int second) {
+        return String.format(template, first, second);
+    }
+}
@@ -0,0 +1,8 @@
+package model;
+
+// Represents the kinds of resources a village stores and its buildings produce.
+public enum Resource {
+    FOOD,
+    WOOD,
+    STONE
+}
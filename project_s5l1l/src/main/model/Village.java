@@ -2,77 +2,146 @@ package model;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
+import persistence.JsonOutput;
+import persistence.StreamWritable;
 import persistence.Writable;
 
+import java.io.IOException;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 
 // Represents a village which is a collection of citizens and buildings, that has a certain amount of resources.
 // can add and remove buildings or citizens, it updates the state of the resources and citizens every turn.
 // it is the class manipulated directly by the ui.
-public class Village implements Writable {
-    private final List<Citizen> citizens;
-    private final List<Citizen> unemployed;
+// it keeps the production per turn of every resource up to date as buildings and workers come and go.
+// who works where, and who is unemployed, is kept by the EmploymentRegistry of its citizen table.
+// every state-changing operation made through the village is recorded as a Command and handed to its
+// CommandListener, if it has one, so the village can be rebuilt by replaying the commands from a snapshot.
+public class Village implements Writable, StreamWritable {
+    private final CitizenTable citizens;
+    private final EmploymentRegistry employment;
     private final List<Building> buildings;
+    private final int[] production;
     private int totalWood;
     private int totalStone;
     private int totalFood;
+    private int turn;
+    private int starved = -1;
+    private CommandListener recorder;
 
 
     // EFFECTS: Makes a Village with initialized citizens, buildings, and wood, food, stone stores.
     //          Adds default buildings and assigns initial workers.
     public Village() {
-        this.citizens = new ArrayList<>();
-        this.buildings = new ArrayList<>();
-        this.unemployed = new ArrayList<>();
+        this(20, 15, 15);
 
-        this.totalFood = 20;
-        this.totalWood = 15;
-        this.totalStone = 15;
-
-        buildings.add(new Building("Farm", "Farm 1"));
-        buildings.add(new Building("Lumber Mill", "Mill 1"));
-        buildings.add(new Building("Mine", "Mine 1"));
+        buildings.add(new Building(BuildingType.FARM, "Farm 1"));
+        buildings.add(new Building(BuildingType.LUMBER_MILL, "Mill 1"));
+        buildings.add(new Building(BuildingType.MINE, "Mine 1"));
 
         for (int i = 0; i < 6; i++) {
             citizens.add(new Citizen("Founder", false));
         }
-        EventLog.getInstance().logEvent(new Event("A village was created"));
-        buildings.get(0).addWorker(citizens.get(0));
-        citizens.get(0).setWorking(true);
-
-        buildings.get(1).addWorker(citizens.get(1));
-        citizens.get(1).setWorking(true);
+        EventLog.getInstance().log(EventMessage.VILLAGE_CREATED, null, null);
+        for (int i = 0; i < 3; i++) {
+            Citizen founder = citizens.view(citizens.slotAt(i));
+            buildings.get(i).addWorker(founder);
+            founder.setWorking(true);
+        }
+    }
 
-        buildings.get(2).addWorker(citizens.get(2));
-        citizens.get(2).setWorking(true);
-        unemployed.add(citizens.get(3));
-        unemployed.add(citizens.get(4));
-        unemployed.add(citizens.get(5));
+    // EFFECTS: Makes an empty Village with no citizens or buildings and the given resources, logs nothing.
+    //          Used by VillageBuilder to restore a saved village.
+    Village(int totalFood, int totalWood, int totalStone) {
+        this.citizens = new CitizenTable();
+        this.buildings = new BuildingList();
+        this.employment = citizens.getEmployment();
+        this.production = new int[Resource.values().length];
+        this.totalFood = totalFood;
+        this.totalWood = totalWood;
+        this.totalStone = totalStone;
     }
 
     //MODIFIES: this
     //EFFECTS: Adds a new Citizen to the citizens list.
     public void addCitizen(Citizen citizen) {
         citizens.add(citizen);
-        //citizen.setWorking(true);
-        if (!citizen.isWorking()) {
-            unemployed.add(citizen);
-        }
-        EventLog.getInstance().logEvent(new Event("A Citizen was ADDED to the village"));
+        EventLog.getInstance().log(EventMessage.CITIZEN_ADDED, null, null);
+        record(CommandType.ADD_CITIZEN, citizen.isWorking() ? 1 : 0, 0, null, citizen.getName());
     }
 
     //REQUIRES: index to be within the bounds of the citizens list.
     //MODIFIES: this
-    //EFFECTS: removes and return the Citizen from the village.
+    //EFFECTS: removes and return the Citizen from the village, firing them first if they work in a building.
     public Citizen removeCitizen(int index) {
-        Citizen removed = citizens.remove(index);
-        unemployed.remove(removed);
-        EventLog.getInstance().logEvent(new Event("A Citizen was REMOVED from the village"));
+        Citizen removed = dropCitizen(index);
+        EventLog.getInstance().log(EventMessage.CITIZEN_REMOVED, null, null);
+        record(CommandType.REMOVE_CITIZEN, index, 0, null, null);
         return removed;
     }
 
+    //REQUIRES: index to be within the bounds of the citizens list.
+    //MODIFIES: this
+    //EFFECTS: fires the citizen at index from their building if they have one, then removes and returns them.
+    private Citizen dropCitizen(int index) {
+        Building employer = employment.getEmployer(citizens.slotAt(index));
+        if (employer != null) {
+            employer.removeWorker(citizens.view(citizens.slotAt(index)));
+        }
+        return citizens.removeAt(index);
+    }
+
+    //REQUIRES: citizen and building are in this village.
+    //MODIFIES: this, citizen, building
+    //EFFECTS: if citizen is unemployed and building has space, hires citizen to work in building and returns true,
+    //         otherwise returns false.
+    public boolean hire(Citizen citizen, Building building) {
+        if (citizen.getEmployer() != null || building.getNumWorkers() >= building.getMaxWorkers()) {
+            return false;
+        }
+        building.addWorker(citizen);
+        citizen.setWorking(true);
+        record(CommandType.HIRE, citizens.indexOf(citizen), buildings.indexOf(building), null, null);
+        return true;
+    }
+
+    //REQUIRES: building is in this village.
+    //MODIFIES: this, building
+    //EFFECTS: fires the worker that has worked longest in building and returns them, returns null if there is none.
+    public Citizen fire(Building building) {
+        Citizen fired = building.removeWorker();
+        if (fired != null) {
+            record(CommandType.FIRE, buildings.indexOf(building), 0, null, null);
+        }
+        return fired;
+    }
+
+    //REQUIRES: index to be within the bounds of the citizens list, name !null.
+    //MODIFIES: this
+    //EFFECTS: renames the citizen at index to name.
+    public void renameCitizen(int index, String name) {
+        citizens.view(citizens.slotAt(index)).setName(name);
+        record(CommandType.RENAME_CITIZEN, index, 0, null, name);
+    }
+
+    //REQUIRES: index to be within the bounds of the buildings list, name !null.
+    //MODIFIES: this
+    //EFFECTS: renames the building at index to name.
+    public void renameBuilding(int index, String name) {
+        buildings.get(index).setName(name);
+        record(CommandType.RENAME_BUILDING, index, 0, null, name);
+    }
+
+    //EFFECTS: returns any unemployed citizen of the village, or null if everyone is working.
+    public Citizen findUnemployed() {
+        int slot = employment.anyIdle();
+        return slot == -1 ? null : citizens.view(slot);
+    }
+
     //MODIFIES: this
     //EFFECTS: if enough resources makes new building of type and name to buildings and updates resources,
     //         otherwise informs user.
@@ -81,21 +150,29 @@ public class Village implements Writable {
             buildings.add(new Building(type, name));
             totalStone -= stoneCost;
             totalWood -= woodCost;
-            EventLog.getInstance().logEvent(
-                    new Event(String.format("A %s named %s was added from the village", type, name)));
+            EventLog.getInstance().log(EventMessage.BUILT, type, name);
+            record(CommandType.BUILD, woodCost, stoneCost, type, name);
             return true;
         } else {
             return false;
         }
     }
 
+    //MODIFIES: this
+    //EFFECTS: if enough resources makes a new building of type and name paying the catalog costs of type,
+    //         otherwise informs user.
+    public boolean build(BuildingType type, String name) {
+        return build(type.getLabel(), name, type.getWoodCost(), type.getStoneCost());
+    }
+
     //MODIFIES: this
     //EFFECTS: updates the village totalFood by amount. Returns true if totalFood won't be < 0,
     //          otherwise false.
     public boolean changeFood(int amount) {
+        record(CommandType.CHANGE_RESOURCE, Resource.FOOD.ordinal(), amount, null, null);
         if (totalFood + amount >= 0) {
             totalFood += amount;
-            EventLog.getInstance().logEvent(new Event(String.format("Total Food is now: %d", totalFood)));
+            EventLog.getInstance().log(EventMessage.TOTAL_FOOD, totalFood, 0);
             return true;
         } else {
             totalFood = 0;
@@ -103,13 +180,22 @@ public class Village implements Writable {
         }
     }
 
+    //MODIFIES: this
+    //EFFECTS: feeds one citizen, decreasing totalFood by 2. Returns true if there was enough food,
+    //         otherwise false.
+    boolean feedCitizen() {
+        EventLog.getInstance().log(EventMessage.CITIZEN_ATE, null, null);
+        return changeFood(-2);
+    }
+
     //MODIFIES: this
     //EFFECTS: updates the village totalWood by amount. Returns true if totalWood won't be < 0,
     //          otherwise false.
     public boolean changeWood(int amount) {
+        record(CommandType.CHANGE_RESOURCE, Resource.WOOD.ordinal(), amount, null, null);
         if (totalWood + amount >= 0) {
             totalWood += amount;
-            EventLog.getInstance().logEvent(new Event(String.format("Total Wood is now: %d", totalWood)));
+            EventLog.getInstance().log(EventMessage.TOTAL_WOOD, totalWood, 0);
             return true;
         } else {
             return false;
@@ -120,9 +206,10 @@ public class Village implements Writable {
     //EFFECTS: updates the village totalStone by amount. Returns true if totalStone won't be < 0,
     //          otherwise false.
     public boolean changeStone(int amount) {
+        record(CommandType.CHANGE_RESOURCE, Resource.STONE.ordinal(), amount, null, null);
         if (totalStone + amount >= 0) {
             totalStone += amount;
-            EventLog.getInstance().logEvent(new Event(String.format("Total Stone is now: %d", totalStone)));
+            EventLog.getInstance().log(EventMessage.TOTAL_STONE, totalStone, 0);
             return true;
         } else {
             return false;
@@ -131,63 +218,190 @@ public class Village implements Writable {
 
     public void getUpdateResources() {
         updateResources();
-        EventLog.getInstance().logEvent(new Event("Resources were updated"));
+        EventLog.getInstance().log(EventMessage.RESOURCES_UPDATED, null, null);
+        record(CommandType.UPDATE_RESOURCES, 0, 0, null, null);
     }
 
     //MODIFIES: this
-    //EFFECTS: Updates resources based on the production of each building.
-    private void updateResources() {
-        for (Building b : buildings) {
-            switch (b.getType().toUpperCase()) {
-                case "FARM":
-                    totalFood += b.produce();
-                    break;
-                case "MINE":
-                    totalStone += b.produce();
-                    break;
-
-                case "LUMBER MILL":
-                    totalWood += b.produce();
-                    break;
-                default:
-                    break;
-            }
+    //EFFECTS: updates resource by amount the way changeFood, changeWood or changeStone does,
+    //         and returns what it returns.
+    public boolean changeResource(Resource resource, int amount) {
+        switch (resource) {
+            case FOOD:
+                return changeFood(amount);
+            case WOOD:
+                return changeWood(amount);
+            default:
+                return changeStone(amount);
         }
     }
 
     //MODIFIES: this
-    //EFFECTS: Updates isWorking of citizens, adds unemployed citizens to unemployed.
-    //         Each citizen tries to eat().
-    //         If totalFood == 0, removes a citizen due to starvation and prints a message.
+    //EFFECTS: Adds a citizen named name to the end of the citizens without making a Citizen object,
+    //         logs and records nothing. Used by VillageBuilder.
+    void restoreCitizen(String name, boolean isWorking) {
+        citizens.add(name, isWorking);
+    }
 
-    private void updateCitizens() {
+    //EFFECTS: Returns the table the citizens are kept in. Used by VillageBuilder.
+    CitizenTable getCitizenTable() {
+        return citizens;
+    }
 
-        for (Citizen c : citizens) {
-            if (!c.isWorking()) {
-                unemployed.add(c);
+    //MODIFIES: this
+    //EFFECTS: Sets the store of resource to amount, logs and records nothing. Used by VillageBuilder.
+    void restoreTotal(Resource resource, int amount) {
+        switch (resource) {
+            case FOOD:
+                totalFood = amount;
+                break;
+            case WOOD:
+                totalWood = amount;
+                break;
+            default:
+                totalStone = amount;
+        }
+    }
 
-            }
+    //MODIFIES: this
+    //EFFECTS: Updates resources based on the production of each building,
+    //         using the production totals kept up to date by the buildings.
+    private void updateResources() {
+        totalFood += production[Resource.FOOD.ordinal()];
+        totalWood += production[Resource.WOOD.ordinal()];
+        totalStone += production[Resource.STONE.ordinal()];
+    }
 
-            if (totalFood <= 0) {
-                citizens.remove(c);
-                break;
-            }
-            c.eat(this);
+    //MODIFIES: this
+    //EFFECTS: Adds delta to the production per turn of resource.
+    void productionChanged(Resource resource, int delta) {
+        production[resource.ordinal()] += delta;
+    }
+
+    //EFFECTS: Returns the current state of the village as a snapshot that never changes afterwards.
+    //         Only copies flat columns of the citizen table and the buildings, so it is cheap enough to take
+    //         on the UI thread and hand to another thread to save.
+    public VillageSnapshot snapshot() {
+        int[] positions = citizens.positionsBySlot();
+        BuildingSnapshot[] buildingStates = new BuildingSnapshot[buildings.size()];
+        for (int i = 0; i < buildingStates.length; i++) {
+            buildingStates[i] = buildings.get(i).snapshot(citizens, positions);
         }
-        EventLog.getInstance().logEvent(new Event("Citizens were updated"));
+        int[] totals = new int[Resource.values().length];
+        totals[Resource.FOOD.ordinal()] = totalFood;
+        totals[Resource.WOOD.ordinal()] = totalWood;
+        totals[Resource.STONE.ordinal()] = totalStone;
+        return new VillageSnapshot(turn, totals, citizens.names(), citizens.nameIdsInOrder(), citizens.workingInOrder(),
+                buildingStates);
+    }
+
+    //MODIFIES: this
+    //EFFECTS: Sets the listener every command applied to the village is handed to, null stops recording.
+    public void setCommandListener(CommandListener listener) {
+        this.recorder = listener;
+    }
+
+    //EFFECTS: Hands a command of type with the given arguments to the listener, if there is one.
+    //         The command is only made when there is a listener.
+    private void record(CommandType type, int first, int second, String text, String name) {
+        if (recorder != null) {
+            recorder.commandApplied(new Command(type, first, second, text, name));
+        }
+    }
+
+    //EFFECTS: Returns how much of resource the buildings of the village produce per turn.
+    public int getProduction(Resource resource) {
+        return production[resource.ordinal()];
+    }
+
+    //MODIFIES: this
+    //EFFECTS: Feeds the whole population at once, each citizen eats 2 food in village order
+    //         (the last one fed may get the final single unit).
+    //         If the food runs out before everyone has eaten, the first citizen left unfed starves and is removed.
+    //         Logs a single summary event instead of one per citizen.
+    private void updateCitizens() {
+        int population = citizens.size();
+        int fed = (int) Math.min(population, ((long) totalFood + 1) / 2);
+        totalFood = (int) Math.max(0, totalFood - 2L * fed);
+        starved = fed < population ? fed : -1;
+        if (fed < population) {
+            dropCitizen(fed);
+            EventLog.getInstance().log(EventMessage.CITIZEN_STARVED, null, null);
+        }
+        EventLog.getInstance().log(EventMessage.CITIZENS_FED, fed, totalFood);
+        EventLog.getInstance().log(EventMessage.CITIZENS_UPDATED, null, null);
     }
 
     //MODIFIES: this
     //EFFECTS: Updates village per turn by calling updateCitizens(), updateResources().
     public void update() {
+        playTurn();
+        record(CommandType.END_TURN, 0, 0, null, null);
+    }
+
+    //MODIFIES: this
+    //EFFECTS: Plays one turn, updating resources and then citizens.
+    private void playTurn() {
+        turn++;
         updateResources();
         updateCitizens();
-        EventLog.getInstance().logEvent(new Event("Village updated for next turn"));
+        EventLog.getInstance().log(EventMessage.TURN_ENDED, null, null);
     }
 
-    public List<Citizen> getCitizens() {
-        return citizens;
+    //REQUIRES: turns >= 0
+    //MODIFIES: this
+    //EFFECTS: Plays up to turns turns, ending in the same state as calling update() that many times,
+    //         and returns the number of turns played. Stops after the first turn in which a citizen starves.
+    //         Turns in which nobody starves are worked out in closed form, only the starvation turn
+    //         is played citizen by citizen. Logs one event for the whole advance.
+    public int advance(int turns) {
+        int foodPerTurn = getProduction(Resource.FOOD) - 2 * citizens.size();
+        int played = turnsBeforeStarvation(turns, foodPerTurn);
+        if (turns > 0) {
+            starved = -1;
+        }
+
+        totalFood = saturate(Math.max(0, totalFood + (long) played * foodPerTurn));
+        totalWood = saturate(totalWood + (long) played * getProduction(Resource.WOOD));
+        totalStone = saturate(totalStone + (long) played * getProduction(Resource.STONE));
+        turn += played;
+
+        if (played < turns) {
+            playTurn();
+            played++;
+        }
+        EventLog.getInstance().log(EventMessage.ADVANCED, played, 0);
+        record(CommandType.ADVANCE, turns, 0, null, null);
+        return played;
+    }
 
+    //EFFECTS: Returns the index the citizen who starved in the last turn played had in getCitizens(),
+    //         or -1 if nobody starved in that turn or no turn has been played.
+    public int getStarvedIndex() {
+        return starved;
+    }
+
+    //EFFECTS: Returns how many of the next turns (at most turns) can be played before a citizen starves,
+    //         given that the food store changes by foodPerTurn every turn.
+    //         A turn is safe while the food at the start of the turn plus production feeds everyone,
+    //         the last citizen may take the final single unit of food.
+    private int turnsBeforeStarvation(int turns, int foodPerTurn) {
+        if (foodPerTurn >= -1) {
+            return turns;
+        }
+        long safe = ((long) totalFood + 1) / -foodPerTurn;
+        return (int) Math.min(turns, safe);
+    }
+
+    //EFFECTS: Returns value clamped to the range of an int.
+    private static int saturate(long value) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value));
+    }
+
+    //EFFECTS: Returns the citizens of the village in order, as a list backed by the citizen table.
+    //         indexOf and contains look a citizen up by its slot, without going through the list.
+    public List<Citizen> getCitizens() {
+        return citizens.asList();
     }
 
 
@@ -195,8 +409,10 @@ public class Village implements Writable {
         return buildings;
     }
 
+    //EFFECTS: Returns a read-only list of the unemployed citizens in the order they became unemployed,
+    //         backed by the employment registry. Each unemployed citizen is in the list exactly once.
     public List<Citizen> getUnemployed() {
-        return unemployed;
+        return new UnemployedList();
     }
 
 
@@ -212,6 +428,18 @@ public class Village implements Writable {
         return totalWood;
     }
 
+    //EFFECTS: Returns the number of turns played since the village was founded.
+    public int getTurn() {
+        return turn;
+    }
+
+    //REQUIRES: turn >= 0
+    //MODIFIES: this
+    //EFFECTS: Sets the number of turns played, used to restore a saved village.
+    public void setTurn(int turn) {
+        this.turn = turn;
+    }
+
     @Override
     //EFFECTS: Returns this village as a JSONObject.
     public JSONObject toJson() {
@@ -219,13 +447,14 @@ public class Village implements Writable {
         JSONArray jsonCitizens = new JSONArray();
         JSONArray jsonBuildings = new JSONArray();
 
-        for (Citizen c : citizens) {
+        for (Citizen c : getCitizens()) {
             jsonCitizens.put(c.toJson());
         }
 
 
+        int[] positions = citizens.positionsBySlot();
         for (Building b : buildings) {
-            jsonBuildings.put(b.toJson());
+            jsonBuildings.put(b.toJson(citizens, positions));
         }
 
         json.put("citizens", jsonCitizens);
@@ -233,9 +462,174 @@ public class Village implements Writable {
         json.put("totalWood", totalWood);
         json.put("totalStone", totalStone);
         json.put("totalFood", totalFood);
-        EventLog.getInstance().logEvent(new Event("Village state was saved"));
+        json.put("turn", turn);
+        EventLog.getInstance().log(EventMessage.SAVED, null, null);
         return json;
     }
+
+    @Override
+    //EFFECTS: Writes this village to out as a JSON object with the same members as toJson(), without building
+    //         a JSONObject of it. Citizens are written straight from the citizen table. Written compact, the
+    //         cached JSON of every citizen and building is spliced in, only what changed since is made again.
+    public void writeJson(JsonOutput out) throws IOException {
+        out.beginObject();
+        boolean cached = out.isCompact();
+        writeCitizens(out, cached);
+        int[] positions = citizens.positionsBySlot();
+        out.name("buildings").beginArray();
+        for (Building b : buildings) {
+            if (cached) {
+                out.raw(b.fragment(citizens, positions));
+            } else {
+                b.writeJson(out, citizens, positions);
+            }
+        }
+        out.endArray();
+        out.name("totalWood").value(totalWood);
+        out.name("totalStone").value(totalStone);
+        out.name("totalFood").value(totalFood);
+        out.name("turn").value(turn);
+        out.endObject();
+        EventLog.getInstance().log(EventMessage.SAVED, null, null);
+    }
+
+    //EFFECTS: Writes the citizens to out as the "citizens" member, splicing in their cached JSON if cached.
+    private void writeCitizens(JsonOutput out, boolean cached) throws IOException {
+        out.name("citizens").beginArray();
+        for (int i = 0; i < citizens.size(); i++) {
+            int slot = citizens.slotAt(i);
+            if (cached) {
+                out.raw(citizens.fragment(slot));
+            } else {
+                Citizen.writeJson(out, citizens.getName(slot), citizens.isWorking(slot));
+            }
+        }
+        out.endArray();
+    }
+
+    // The unemployed citizens read from the employment registry. Each list keeps its own position in the
+    // registry's index, so reading it in order costs O(1) per citizen and never disturbs another list
+    // being read at the same time. The position is dropped whenever the index changes.
+    private class UnemployedList extends AbstractList<Citizen> {
+        private int cursorIndex = -1;
+        private int cursorSlot;
+        private int cursorChanges;
+
+        @Override
+        public Citizen get(int index) {
+            if (index < 0 || index >= employment.idleCount()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + employment.idleCount());
+            }
+            if (cursorIndex == -1 || index < cursorIndex || cursorChanges != employment.idleChanges()) {
+                cursorIndex = 0;
+                cursorSlot = employment.anyIdle();
+                cursorChanges = employment.idleChanges();
+            }
+            while (cursorIndex < index) {
+                cursorSlot = employment.nextIdle(cursorSlot);
+                cursorIndex++;
+            }
+            return citizens.view(cursorSlot);
+        }
+
+        @Override
+        public int size() {
+            return employment.idleCount();
+        }
+    }
+
+    // The buildings of the village, adding or removing a building makes the village its owner or not
+    // and moves the building's production in or out of the village's production totals.
+    // The position of every building is kept, so indexOf does not search the list.
+    private class BuildingList extends AbstractList<Building> {
+        private final List<Building> list = new ArrayList<>();
+        private final Map<Building, Integer> positions = new IdentityHashMap<>();
+
+        @Override
+        public Building get(int index) {
+            return list.get(index);
+        }
+
+        @Override
+        public int size() {
+            return list.size();
+        }
+
+        @Override
+        public void add(int index, Building building) {
+            list.add(index, building);
+            renumber(index);
+            join(building);
+            modCount++;
+        }
+
+        @Override
+        public Building set(int index, Building building) {
+            Building replaced = list.set(index, building);
+            positions.remove(replaced);
+            positions.put(building, index);
+            leave(replaced);
+            join(building);
+            return replaced;
+        }
+
+        @Override
+        public Building remove(int index) {
+            Building removed = list.remove(index);
+            positions.remove(removed);
+            renumber(index);
+            leave(removed);
+            modCount++;
+            return removed;
+        }
+
+        @Override
+        public void clear() {
+            for (Building b : list) {
+                leave(b);
+            }
+            list.clear();
+            positions.clear();
+            modCount++;
+        }
+
+        @Override
+        public int indexOf(Object building) {
+            Integer index = positions.get(building);
+            return index == null ? -1 : index;
+        }
+
+        @Override
+        public boolean contains(Object building) {
+            return positions.containsKey(building);
+        }
+
+        //MODIFIES: this
+        //EFFECTS: records the position of every building from index to the end of the list.
+        private void renumber(int index) {
+            for (int i = index; i < list.size(); i++) {
+                positions.put(list.get(i), i);
+            }
+        }
+
+        //MODIFIES: Village.this, building
+        //EFFECTS: makes the village the owner of building and adds its production.
+        private void join(Building building) {
+            building.setOwner(Village.this);
+            if (building.getKind() != null) {
+                productionChanged(building.getKind().getResource(), building.produce());
+            }
+        }
+
+        //MODIFIES: Village.this, building
+        //EFFECTS: takes building's production out of the village and clears its owner.
+        private void leave(Building building) {
+            if (building.getKind() != null) {
+                productionChanged(building.getKind().getResource(), -building.produce());
+            }
+            building.setOwner(null);
+        }
+    }
 }
 
 
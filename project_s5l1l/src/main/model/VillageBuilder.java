@@ -0,0 +1,139 @@
+package model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Builds a saved village back up from its parts, in whatever order a reader comes across them.
+// Unlike new Village() it starts from an empty village, so no default buildings, founders or events are made
+// only to be thrown away, and it logs and records nothing while the village is filled in.
+// Citizens go straight into the village's citizen table. Workers are only put in their buildings by build(),
+// since a save may list the buildings before the citizens working in them.
+public class VillageBuilder {
+    private static final int BY_NAME = -1;
+    private static final int OUTSIDER = -2;
+
+    private final Village village;
+    private final List<Building> buildings;
+    private final List<Worker> workers;
+    private int turn;
+
+    // EFFECTS: Makes a builder of a village with no citizens, no buildings and no resources.
+    public VillageBuilder() {
+        this.village = new Village(0, 0, 0);
+        this.buildings = new ArrayList<>();
+        this.workers = new ArrayList<>();
+    }
+
+    //MODIFIES: this
+    //EFFECTS: Sets the number of turns the village has played.
+    public VillageBuilder setTurn(int turn) {
+        this.turn = turn;
+        return this;
+    }
+
+    //MODIFIES: this
+    //EFFECTS: Sets the store of resource in the village to amount.
+    public VillageBuilder setTotal(Resource resource, int amount) {
+        village.restoreTotal(resource, amount);
+        return this;
+    }
+
+    //REQUIRES: name !null
+    //MODIFIES: this
+    //EFFECTS: Adds a citizen to the end of the village's citizens.
+    public VillageBuilder addCitizen(String name, boolean isWorking) {
+        village.restoreCitizen(name, isWorking);
+        return this;
+    }
+
+    //REQUIRES: type and name !null
+    //MODIFIES: this
+    //EFFECTS: Adds a building to the end of the village's buildings, the workers added next work in it.
+    public VillageBuilder addBuilding(String type, String name, int maxWorkers) {
+        Building building = new Building(type, name);
+        building.setMaxWorkers(maxWorkers);
+        buildings.add(building);
+        return this;
+    }
+
+    //REQUIRES: a building has been added; by build(), 0 <= citizen < the number of citizens added
+    //MODIFIES: this
+    //EFFECTS: Adds the citizen at position citizen in the village to the workers of the last building added.
+    public VillageBuilder addWorker(int citizen) {
+        workers.add(new Worker(buildings.size() - 1, citizen, null, false));
+        return this;
+    }
+
+    //REQUIRES: a building has been added, name !null
+    //MODIFIES: this
+    //EFFECTS: Adds a worker known only by name to the workers of the last building added, as saved by versions
+    //         that did not keep where workers live. At build() it is matched to the first working citizen of that
+    //         name not yet working in a building, or added as a worker who is not a citizen if there is none.
+    public VillageBuilder addWorker(String name, boolean isWorking) {
+        workers.add(new Worker(buildings.size() - 1, BY_NAME, name, isWorking));
+        return this;
+    }
+
+    //REQUIRES: a building has been added, name !null
+    //MODIFIES: this
+    //EFFECTS: Adds a worker who is not a citizen of the village to the workers of the last building added.
+    public VillageBuilder addOutsider(String name, boolean isWorking) {
+        workers.add(new Worker(buildings.size() - 1, OUTSIDER, name, isWorking));
+        return this;
+    }
+
+    //REQUIRES: build() has not been called before
+    //MODIFIES: this
+    //EFFECTS: Puts the buildings and their workers in the village and returns it.
+    public Village build() {
+        village.setTurn(turn);
+        List<Building> villageBuildings = village.getBuildings();
+        villageBuildings.addAll(buildings);
+        CitizenTable table = village.getCitizenTable();
+        Map<String, ArrayDeque<Integer>> byName = null;
+        for (Worker w : workers) {
+            int slot = w.citizen;
+            if (slot == BY_NAME) {
+                byName = byName == null ? unplacedByName(table) : byName;
+                ArrayDeque<Integer> slots = byName.get(w.name);
+                slot = slots == null || slots.isEmpty() ? OUTSIDER : slots.poll();
+            } else if (slot != OUTSIDER) {
+                slot = table.slotAt(slot);
+            }
+            Citizen worker = slot == OUTSIDER ? new Citizen(w.name, w.isWorking) : table.view(slot);
+            villageBuildings.get(w.building).restoreWorker(worker);
+        }
+        return village;
+    }
+
+    // EFFECTS: Returns the slots of the working citizens in table that are not in a building yet, by name.
+    private static Map<String, ArrayDeque<Integer>> unplacedByName(CitizenTable table) {
+        Map<String, ArrayDeque<Integer>> byName = new HashMap<>();
+        for (int i = 0; i < table.size(); i++) {
+            int slot = table.slotAt(i);
+            if (table.isWorking(slot) && table.getBuilding(slot) == null) {
+                byName.computeIfAbsent(table.getName(slot), k -> new ArrayDeque<>()).add(slot);
+            }
+        }
+        return byName;
+    }
+
+    // A worker waiting to be put in a building: the position of a citizen, BY_NAME to be matched by name,
+    // or OUTSIDER for a worker who is not a citizen of the village.
+    private static class Worker {
+        private final int building;
+        private final int citizen;
+        private final String name;
+        private final boolean isWorking;
+
+        Worker(int building, int citizen, String name, boolean isWorking) {
+            this.building = building;
+            this.citizen = citizen;
+            this.name = name;
+            this.isWorking = isWorking;
+        }
+    }
+}
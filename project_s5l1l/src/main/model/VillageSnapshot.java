@@ -0,0 +1,83 @@
+package model;
+
+import java.util.BitSet;
+
+// Represents the state of a village at one moment, which never changes afterwards,
+// so it can be saved on another thread while the game goes on (see Village.snapshot()).
+// Citizens are kept column by column as in the village's CitizenTable: every distinct name once,
+// and for each citizen in village order the index of its name and a working bit.
+public class VillageSnapshot {
+    private final int turn;
+    private final int totalFood;
+    private final int totalWood;
+    private final int totalStone;
+    private final String[] names;
+    private final int[] citizenNames;
+    private final BitSet working;
+    private final BuildingSnapshot[] buildings;
+
+    //REQUIRES: every entry of citizenNames is an index of names. The arrays are not copied and
+    //          must not be changed afterwards.
+    //EFFECTS: Makes a snapshot of a village with the given state.
+    VillageSnapshot(int turn, int[] totals, String[] names, int[] citizenNames, BitSet working,
+                    BuildingSnapshot[] buildings) {
+        this.turn = turn;
+        this.totalFood = totals[Resource.FOOD.ordinal()];
+        this.totalWood = totals[Resource.WOOD.ordinal()];
+        this.totalStone = totals[Resource.STONE.ordinal()];
+        this.names = names;
+        this.citizenNames = citizenNames;
+        this.working = working;
+        this.buildings = buildings;
+    }
+
+    public int getTurn() {
+        return turn;
+    }
+
+    public int getTotalFood() {
+        return totalFood;
+    }
+
+    public int getTotalWood() {
+        return totalWood;
+    }
+
+    public int getTotalStone() {
+        return totalStone;
+    }
+
+    //EFFECTS: Returns the number of distinct names, each name has an index from 0 to getNameCount() - 1.
+    public int getNameCount() {
+        return names.length;
+    }
+
+    //REQUIRES: 0 <= index < getNameCount()
+    public String getName(int index) {
+        return names[index];
+    }
+
+    public int getCitizenCount() {
+        return citizenNames.length;
+    }
+
+    //REQUIRES: 0 <= citizen < getCitizenCount()
+    //EFFECTS: Returns the index of the name of the citizen at position citizen in the village.
+    public int getCitizenName(int citizen) {
+        return citizenNames[citizen];
+    }
+
+    //REQUIRES: 0 <= citizen < getCitizenCount()
+    public boolean isCitizenWorking(int citizen) {
+        return working.get(citizen);
+    }
+
+    public int getBuildingCount() {
+        return buildings.length;
+    }
+
+    //REQUIRES: 0 <= index < getBuildingCount()
+    public BuildingSnapshot getBuilding(int index) {
+        return buildings[index];
+    }
+}
@@ -0,0 +1,125 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Represents a world of independent villages that are played together.
+// Every village gets its own EventLog, and each turn the villages are updated in parallel on a ForkJoinPool.
+// While a village is being updated the worker thread is bound to that village's log,
+// so villages never share any state while they are played.
+public class World {
+    private static final int VILLAGES_PER_TASK = 16;
+
+    private final List<Village> villages;
+    private final List<EventLog> logs;
+    private final ForkJoinPool pool;
+
+    //EFFECTS: Makes an empty world played on the common ForkJoinPool.
+    public World() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    //REQUIRES: pool !null
+    //EFFECTS: Makes an empty world played on pool.
+    public World(ForkJoinPool pool) {
+        this.villages = new ArrayList<>();
+        this.logs = new ArrayList<>();
+        this.pool = pool;
+    }
+
+    //MODIFIES: this
+    //EFFECTS: Makes a new village with its own EventLog, adds it to the world and returns it.
+    //         The events of founding the village go to its own log.
+    public Village addVillage() {
+        EventLog log = EventLog.newLog();
+        EventLog previous = EventLog.bind(log);
+        try {
+            Village village = new Village();
+            villages.add(village);
+            logs.add(log);
+            return village;
+        } finally {
+            EventLog.bind(previous);
+        }
+    }
+
+    //REQUIRES: village !null and village is not in this or another world.
+    //MODIFIES: this
+    //EFFECTS: Adds an existing village to the world with a new, empty EventLog.
+    public void addVillage(Village village) {
+        villages.add(village);
+        logs.add(EventLog.newLog());
+    }
+
+    //MODIFIES: this
+    //EFFECTS: Plays one turn in every village, in parallel.
+    public void tick() {
+        pool.invoke(new PlayTask(0, villages.size(), 1));
+    }
+
+    //REQUIRES: turns >= 0
+    //MODIFIES: this
+    //EFFECTS: Advances every village by up to turns turns (see Village.advance), in parallel.
+    public void advance(int turns) {
+        pool.invoke(new PlayTask(0, villages.size(), turns));
+    }
+
+    public int size() {
+        return villages.size();
+    }
+
+    public Village getVillage(int index) {
+        return villages.get(index);
+    }
+
+    //EFFECTS: Returns the EventLog of the village at index.
+    public EventLog getEventLog(int index) {
+        return logs.get(index);
+    }
+
+    //MODIFIES: village
+    //EFFECTS: Plays turns turns of the village at index with the current thread bound to its log.
+    private void play(int index, int turns) {
+        EventLog previous = EventLog.bind(logs.get(index));
+        try {
+            Village village = villages.get(index);
+            if (turns == 1) {
+                village.update();
+            } else {
+                village.advance(turns);
+            }
+        } finally {
+            EventLog.bind(previous);
+        }
+    }
+
+    // Plays a range of villages, splitting it in half until it is small enough to play on one thread.
+    private class PlayTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int turns;
+
+        //EFFECTS: Makes a task that plays turns turns of the villages in [from, to).
+        PlayTask(int from, int to, int turns) {
+            this.from = from;
+            this.to = to;
+            this.turns = turns;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= VILLAGES_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    play(i, turns);
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new PlayTask(from, mid, turns), new PlayTask(mid, to, turns));
+            }
+        }
+    }
+}
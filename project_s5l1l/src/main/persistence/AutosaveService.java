@@ -0,0 +1,139 @@
+package persistence;
+
+import model.Village;
+import model.VillageSnapshot;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Represents a service that saves a village every few turns without holding up the thread playing the game.
+// The calling thread only takes a snapshot of the village (see Village.snapshot()), the snapshot is written in the
+// binary format by a background thread to a temporary file next to the destination, which is then renamed over it,
+// so the destination always holds a whole save even if the game stops in the middle of writing.
+// Saves asked for while one is being written are coalesced, only the newest snapshot waiting is written.
+public class AutosaveService {
+    private final Path destination;
+    private final int interval;
+    private final ExecutorService executor;
+    private final AtomicReference<VillageSnapshot> pending;
+    private final AtomicInteger saves;
+    private volatile IOException lastError;
+    private int turns;
+
+    // REQUIRES: interval > 0
+    // EFFECTS: constructs a service that saves to destination file every interval turns
+    public AutosaveService(String destination, int interval) {
+        this.destination = Paths.get(destination).toAbsolutePath();
+        this.interval = interval;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.pending = new AtomicReference<>();
+        this.saves = new AtomicInteger();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: counts a turn of village and saves it in the background if interval turns have ended since the
+    // last autosave; returns true if a save was started
+    public boolean turnEnded(Village village) {
+        turns++;
+        if (turns % interval != 0) {
+            return false;
+        }
+        save(village);
+        return true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: takes a snapshot of village and saves it in the background, replacing a snapshot still waiting
+    public void save(Village village) {
+        if (pending.getAndSet(village.snapshot()) == null) {
+            executor.execute(this::writePending);
+        }
+    }
+
+    // EFFECTS: waits until every save started so far has been written; throws IOException if the last save failed
+    public void flush() throws IOException {
+        try {
+            executor.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+        if (lastError != null) {
+            throw lastError;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: finishes the saves started so far and stops the background thread
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // EFFECTS: returns the number of saves written so far
+    public int getSaveCount() {
+        return saves.get();
+    }
+
+    // EFFECTS: returns the error of the last save if it failed, otherwise null
+    public IOException getLastError() {
+        return lastError;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the newest snapshot waiting, if any, and records whether it failed
+    private void writePending() {
+        VillageSnapshot snapshot = pending.getAndSet(null);
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            write(snapshot);
+            lastError = null;
+            saves.incrementAndGet();
+        } catch (IOException e) {
+            lastError = e;
+        }
+    }
+
+    // EFFECTS: writes snapshot to a temporary file and renames it over the destination file;
+    // throws IOException if it cannot be written, the destination is left as it was
+    private void write(VillageSnapshot snapshot) throws IOException {
+        Path temp = Files.createTempFile(destination.getParent(), destination.getFileName().toString(), ".tmp");
+        try {
+            BinaryWriter writer = new BinaryWriter(temp.toString());
+            writer.open();
+            try {
+                writer.write(snapshot);
+            } finally {
+                writer.close();
+            }
+            try {
+                Files.move(temp, destination, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, destination, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
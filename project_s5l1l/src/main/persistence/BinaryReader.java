@@ -0,0 +1,97 @@
+package persistence;
+
+import model.Resource;
+import model.Village;
+import model.VillageBuilder;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+// Represents a reader that reads village from the binary data written by BinaryWriter stored in file.
+// The village is filled in through a VillageBuilder and workers are put back in their buildings as they were saved.
+public class BinaryReader {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private String source;
+
+    // EFFECTS: constructs reader to read from source file
+    public BinaryReader(String source) {
+        this.source = source;
+    }
+
+    // EFFECTS: reads village from file and returns it;
+    // throws IOException if an error occurs reading data from file or it is not a binary save of a known version
+    public Village read() throws IOException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(source), BUFFER_SIZE)) {
+            return read(in);
+        }
+    }
+
+    // EFFECTS: reads village from stream and returns it, leaving stream open;
+    // throws IOException if an error occurs reading data from stream or it is not a binary save of a known version
+    Village read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != BinaryWriter.MAGIC) {
+            throw new IOException(source + " is not a binary save");
+        }
+        int version = in.readUnsignedByte();
+        if (version < 1 || version > BinaryWriter.VERSION) {
+            throw new IOException(source + " has unknown save version " + version);
+        }
+        return parseVillage(in, readStrings(in), version);
+    }
+
+    // EFFECTS: reads the string table
+    private String[] readStrings(DataInputStream in) throws IOException {
+        String[] strings = new String[VarInts.readUnsigned(in)];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[VarInts.readUnsigned(in)];
+            in.readFully(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return strings;
+    }
+
+    // EFFECTS: parses village from in and returns it
+    private Village parseVillage(DataInputStream in, String[] strings, int version) throws IOException {
+        VillageBuilder village = new VillageBuilder();
+        village.setTotal(Resource.FOOD, VarInts.readSigned(in));
+        village.setTotal(Resource.WOOD, VarInts.readSigned(in));
+        village.setTotal(Resource.STONE, VarInts.readSigned(in));
+        if (version >= 2) {
+            village.setTurn(VarInts.readUnsigned(in));
+        }
+        int citizens = VarInts.readUnsigned(in);
+        for (int i = 0; i < citizens; i++) {
+            String name = strings[VarInts.readUnsigned(in)];
+            village.addCitizen(name, in.readUnsignedByte() == 1);
+        }
+        int buildings = VarInts.readUnsigned(in);
+        for (int i = 0; i < buildings; i++) {
+            parseBuilding(in, strings, village);
+        }
+        return village.build();
+    }
+
+    // MODIFIES: village
+    // EFFECTS: parses a building and adds it to village with its workers
+    private void parseBuilding(DataInputStream in, String[] strings, VillageBuilder village) throws IOException {
+        String type = strings[VarInts.readUnsigned(in)];
+        String name = strings[VarInts.readUnsigned(in)];
+        village.addBuilding(type, name, VarInts.readUnsigned(in));
+        int workers = VarInts.readUnsigned(in);
+        for (int i = 0; i < workers; i++) {
+            int index = VarInts.readUnsigned(in);
+            if (index == 0) {
+                String outsider = strings[VarInts.readUnsigned(in)];
+                village.addOutsider(outsider, in.readUnsignedByte() == 1);
+            } else {
+                village.addWorker(index - 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package persistence;
+
+import model.BuildingSnapshot;
+import model.EventLog;
+import model.EventMessage;
+import model.Village;
+import model.VillageSnapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+// Represents a writer that writes a compact binary representation of village to file.
+// Every string is written once in a string table and referred to by its index, and each worker is written
+// as the index of the citizen in the village instead of a second copy of the citizen.
+// Numbers are varints (see VarInts). Version 2 of the format is:
+//     int     MAGIC
+//     byte    VERSION
+//     varint  number of strings, then each string as a varint byte length and its UTF-8 bytes
+//     svarint totalFood, totalWood, totalStone
+//     varint  turn, left out in version 1
+//     varint  number of citizens, then each citizen as a varint name index and a byte, 1 if working
+//     varint  number of buildings, then each building as a varint type index, varint name index,
+//             varint maxWorkers and varint number of workers, then each worker as varint citizen index + 1,
+//             or 0 followed by a varint name index and working byte for a worker who is not a village citizen
+public class BinaryWriter {
+    static final int MAGIC = 0x56534253;
+    static final int VERSION = 2;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private DataOutputStream out;
+    private String destination;
+
+    // EFFECTS: constructs writer to write to destination file
+    public BinaryWriter(String destination) {
+        this.destination = destination;
+    }
+
+    // EFFECTS: constructs writer that is already open and writes to stream,
+    // closing the writer closes stream
+    BinaryWriter(OutputStream stream) {
+        this.out = new DataOutputStream(stream);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: opens writer; throws FileNotFoundException if destination file cannot
+    // be opened for writing
+    public void open() throws FileNotFoundException {
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(destination), BUFFER_SIZE));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes binary representation of village to file; throws IOException if it cannot be written
+    public void write(Village village) throws IOException {
+        write(village.snapshot());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes binary representation of the village state in snapshot to file;
+    // throws IOException if it cannot be written
+    public void write(VillageSnapshot snapshot) throws IOException {
+        Map<String, Integer> strings = stringTable(snapshot);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        writeStrings(strings);
+        VarInts.writeSigned(out, snapshot.getTotalFood());
+        VarInts.writeSigned(out, snapshot.getTotalWood());
+        VarInts.writeSigned(out, snapshot.getTotalStone());
+        VarInts.writeUnsigned(out, snapshot.getTurn());
+        VarInts.writeUnsigned(out, snapshot.getCitizenCount());
+        for (int i = 0; i < snapshot.getCitizenCount(); i++) {
+            VarInts.writeUnsigned(out, snapshot.getCitizenName(i));
+            out.writeByte(snapshot.isCitizenWorking(i) ? 1 : 0);
+        }
+        VarInts.writeUnsigned(out, snapshot.getBuildingCount());
+        for (int i = 0; i < snapshot.getBuildingCount(); i++) {
+            writeBuilding(snapshot.getBuilding(i), strings);
+        }
+        EventLog.getInstance().log(EventMessage.SAVED, null, null);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes everything written so far to the file
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes writer
+    public void close() throws IOException {
+        out.close();
+    }
+
+    // EFFECTS: returns every string of snapshot mapped to its index in the string table, citizen names keep the
+    // index they have in snapshot so citizens can be written without looking their names up
+    static Map<String, Integer> stringTable(VillageSnapshot snapshot) {
+        Map<String, Integer> strings = new HashMap<>();
+        for (int i = 0; i < snapshot.getNameCount(); i++) {
+            strings.put(snapshot.getName(i), i);
+        }
+        for (int i = 0; i < snapshot.getBuildingCount(); i++) {
+            BuildingSnapshot b = snapshot.getBuilding(i);
+            strings.putIfAbsent(b.getType(), strings.size());
+            strings.putIfAbsent(b.getName(), strings.size());
+            for (int w = 0; w < b.getWorkerCount(); w++) {
+                if (b.getWorker(w) == -1) {
+                    strings.putIfAbsent(b.getOutsiderName(w), strings.size());
+                }
+            }
+        }
+        return strings;
+    }
+
+    // EFFECTS: returns the strings of a string table, each at its index
+    static String[] inIndexOrder(Map<String, Integer> strings) {
+        String[] ordered = new String[strings.size()];
+        for (Map.Entry<String, Integer> entry : strings.entrySet()) {
+            ordered[entry.getValue()] = entry.getKey();
+        }
+        return ordered;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the string table, strings in index order
+    private void writeStrings(Map<String, Integer> strings) throws IOException {
+        String[] ordered = inIndexOrder(strings);
+        VarInts.writeUnsigned(out, ordered.length);
+        for (String s : ordered) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            VarInts.writeUnsigned(out, bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes building, referring to workers by their index in the village where they have one
+    private void writeBuilding(BuildingSnapshot building, Map<String, Integer> strings) throws IOException {
+        VarInts.writeUnsigned(out, strings.get(building.getType()));
+        VarInts.writeUnsigned(out, strings.get(building.getName()));
+        VarInts.writeUnsigned(out, building.getMaxWorkers());
+        VarInts.writeUnsigned(out, building.getWorkerCount());
+        for (int w = 0; w < building.getWorkerCount(); w++) {
+            int index = building.getWorker(w);
+            VarInts.writeUnsigned(out, index + 1);
+            if (index == -1) {
+                VarInts.writeUnsigned(out, strings.get(building.getOutsiderName(w)));
+                out.writeByte(building.isOutsiderWorking(w) ? 1 : 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package persistence;
+
+import model.Command;
+import model.CommandListener;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// Represents a writer that appends every command applied to a village to a binary journal file,
+// so the village can be rebuilt by loading its last snapshot and replaying the journal (see CommandJournalReader).
+// Each command costs one small record instead of rewriting the whole village.
+// The file starts with a header of:
+//     int     MAGIC
+//     long    length of the snapshot the journal was started from
+//     int     CRC32 of that snapshot
+// so the journal is only replayed onto the snapshot it belongs to (see VillageStore). Then each command is written as:
+//     byte    CommandType ordinal
+//     byte    flags, which of the fields below are present (FIRST, SECOND, TEXT, NAME)
+//     varint  first, zig-zag encoded (see VarInts), if present
+//     varint  second, zig-zag encoded, if present
+//     UTF     text, if present
+//     UTF     name, if present
+// Numbers that are 0 and strings that are null are left out.
+// Every command reaches the file as soon as it is applied, so the journal holds every action even after a crash;
+// setFlushEach(false) writes commands in blocks instead, for writing many commands at once.
+public class CommandJournal implements CommandListener {
+    static final int MAGIC = 0x56534332;
+    static final int HEADER_SIZE = Integer.BYTES + Long.BYTES + Integer.BYTES;
+    static final int FIRST = 1;
+    static final int SECOND = 2;
+    static final int TEXT = 4;
+    static final int NAME = 8;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private DataOutputStream out;
+    private String destination;
+    private boolean flushEach;
+    private long existing;
+
+    // EFFECTS: constructs a journal that writes to destination file, flushing after every command
+    public CommandJournal(String destination) {
+        this.destination = destination;
+        this.flushEach = true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets whether every command is flushed to the file as soon as it is written,
+    // otherwise commands are written in blocks and on flush() and close()
+    public void setFlushEach(boolean flushEach) {
+        this.flushEach = flushEach;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: opens a journal that does not belong to any snapshot, see open(boolean, long, int)
+    public void open(boolean append) throws FileNotFoundException {
+        open(append, 0, 0);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: opens the journal, keeping the commands already in it if append is true and starting an empty journal
+    // of the snapshot of snapshotLength bytes with checksum snapshotCrc otherwise, or if the journal has no complete
+    // header; throws FileNotFoundException if destination file cannot be opened for writing
+    public void open(boolean append, long snapshotLength, int snapshotCrc) throws FileNotFoundException {
+        File file = new File(destination);
+        boolean fresh = !append || file.length() < HEADER_SIZE;
+        existing = fresh ? 0 : file.length();
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, !fresh), BUFFER_SIZE));
+        if (fresh) {
+            writeOrFail(() -> {
+                out.writeInt(MAGIC);
+                out.writeLong(snapshotLength);
+                out.writeInt(snapshotCrc);
+                out.flush();
+            });
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends command to the journal; throws UncheckedIOException if it cannot be written
+    @Override
+    public void commandApplied(Command command) {
+        writeOrFail(() -> {
+            write(command);
+            if (flushEach) {
+                out.flush();
+            }
+        });
+    }
+
+    // EFFECTS: returns the length in bytes of the journal, counting commands not flushed to the file yet
+    public long size() {
+        return existing + out.size();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes every command written so far to the file
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes every command written so far to the file and closes it
+    public void close() throws IOException {
+        out.close();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the record of command
+    private void write(Command command) throws IOException {
+        int flags = (command.getFirst() != 0 ? FIRST : 0) | (command.getSecond() != 0 ? SECOND : 0)
+                | (command.getText() != null ? TEXT : 0) | (command.getName() != null ? NAME : 0);
+        out.writeByte(command.getType().ordinal());
+        out.writeByte(flags);
+        if ((flags & FIRST) != 0) {
+            VarInts.writeSigned(out, command.getFirst());
+        }
+        if ((flags & SECOND) != 0) {
+            VarInts.writeSigned(out, command.getSecond());
+        }
+        if ((flags & TEXT) != 0) {
+            out.writeUTF(command.getText());
+        }
+        if ((flags & NAME) != 0) {
+            out.writeUTF(command.getName());
+        }
+    }
+
+    // EFFECTS: runs write, rethrowing an IOException as UncheckedIOException
+    private void writeOrFail(IoAction write) {
+        try {
+            write.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write to " + destination, e);
+        }
+    }
+
+    // Represents a write to the journal that can fail
+    private interface IoAction {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,111 @@
+package persistence;
+
+import model.Command;
+import model.CommandType;
+import model.Village;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Represents a reader that reads the commands of a journal written by CommandJournal,
+// and replays them onto a village loaded from the snapshot the journal was started from.
+// A command cut short at the end of the file (the game stopped while writing it) is left out,
+// a command of a type this version does not have is an error.
+public class CommandJournalReader {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final CommandType[] TYPES = CommandType.values();
+
+    private String source;
+
+    // EFFECTS: constructs reader to read from source file
+    public CommandJournalReader(String source) {
+        this.source = source;
+    }
+
+    // EFFECTS: reads the commands of the journal in the order they were written and returns them;
+    // throws IOException if an error occurs reading data from file, it is not a command journal
+    // or it holds a command of an unknown type
+    public List<Command> read() throws IOException {
+        List<Command> commands = new ArrayList<>();
+        try (DataInputStream in = openJournal()) {
+            Command command;
+            while ((command = parseCommand(in)) != null) {
+                commands.add(command);
+            }
+        }
+        return commands;
+    }
+
+    // EFFECTS: returns true if the journal was started from the snapshot of snapshotLength bytes with checksum
+    // snapshotCrc, false if it was started from another snapshot, is of another version or has no complete header;
+    // throws IOException if an error occurs reading data from file
+    public boolean startsFrom(long snapshotLength, int snapshotCrc) throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(source))) {
+            return in.readInt() == CommandJournal.MAGIC && in.readLong() == snapshotLength
+                    && in.readInt() == snapshotCrc;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    // MODIFIES: village
+    // EFFECTS: applies every command of the journal to village in order without keeping them,
+    // and returns the number of commands applied;
+    // throws IOException if an error occurs reading data from file, it is not a command journal
+    // or it holds a command of an unknown type
+    public int replay(Village village) throws IOException {
+        int applied = 0;
+        try (DataInputStream in = openJournal()) {
+            Command command;
+            while ((command = parseCommand(in)) != null) {
+                command.applyTo(village);
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    // EFFECTS: opens the source file and reads past its header; throws IOException if it is not a command journal
+    private DataInputStream openJournal() throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(source), BUFFER_SIZE));
+        try {
+            if (in.readInt() != CommandJournal.MAGIC) {
+                throw new IOException(source + " is not a command journal");
+            }
+            in.readLong();
+            in.readInt();
+        } catch (IOException e) {
+            in.close();
+            throw e instanceof EOFException ? new IOException(source + " is not a command journal") : e;
+        }
+        return in;
+    }
+
+    // MODIFIES: in
+    // EFFECTS: parses the next command and returns it, or returns null at the end of the journal
+    // or if the last command was cut short; throws IOException if the command is of an unknown type
+    private Command parseCommand(DataInputStream in) throws IOException {
+        int type = in.read();
+        if (type < 0) {
+            return null;
+        }
+        if (type >= TYPES.length) {
+            throw new IOException(source + " has a command of unknown type " + type);
+        }
+        try {
+            int flags = in.readUnsignedByte();
+            int first = (flags & CommandJournal.FIRST) != 0 ? VarInts.readSigned(in) : 0;
+            int second = (flags & CommandJournal.SECOND) != 0 ? VarInts.readSigned(in) : 0;
+            String text = (flags & CommandJournal.TEXT) != 0 ? in.readUTF() : null;
+            String name = (flags & CommandJournal.NAME) != 0 ? in.readUTF() : null;
+            return new Command(TYPES[type], first, second, text, name);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+}
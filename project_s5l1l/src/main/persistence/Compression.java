@@ -0,0 +1,107 @@
+package persistence;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+// Represents the ways a save file can be compressed while it is streamed to or from disk.
+// GZIP and DEFLATE (zlib) both start with a header that plain text never does, so a reader can tell the
+// compression of a file from its first two bytes (see open(...)) without being told what it was written with.
+public enum Compression {
+    NONE {
+        @Override
+        public OutputStream compress(OutputStream out, int level) {
+            return out;
+        }
+
+        @Override
+        public InputStream decompress(InputStream in) {
+            return in;
+        }
+    },
+    GZIP {
+        @Override
+        public OutputStream compress(OutputStream out, int level) throws IOException {
+            return new GZIPOutputStream(out, BUFFER_SIZE) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        }
+
+        @Override
+        public InputStream decompress(InputStream in) throws IOException {
+            return new GZIPInputStream(in, BUFFER_SIZE);
+        }
+    },
+    DEFLATE {
+        @Override
+        public OutputStream compress(OutputStream out, int level) {
+            Deflater deflater = new Deflater(level);
+            return new DeflaterOutputStream(out, deflater, BUFFER_SIZE) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        deflater.end();
+                    }
+                }
+            };
+        }
+
+        @Override
+        public InputStream decompress(InputStream in) {
+            Inflater inflater = new Inflater();
+            return new InflaterInputStream(in, inflater, BUFFER_SIZE) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        inflater.end();
+                    }
+                }
+            };
+        }
+    };
+
+    public static final int DEFAULT_LEVEL = Deflater.DEFAULT_COMPRESSION;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int GZIP_MAGIC = 0x1f8b;
+
+    // REQUIRES: level is DEFAULT_LEVEL or between 0 (fastest) and 9 (smallest)
+    // EFFECTS: returns a stream that compresses what is written to it at level and writes it to out,
+    // closing it finishes the compressed data and closes out; throws IOException if a header cannot be written
+    public abstract OutputStream compress(OutputStream out, int level) throws IOException;
+
+    // EFFECTS: returns a stream that reads in and decompresses it, closing it closes in;
+    // throws IOException if in does not start with the header of this compression
+    public abstract InputStream decompress(InputStream in) throws IOException;
+
+    // EFFECTS: returns the compression of the data at the start of in, leaving in where it was
+    public static Compression detect(BufferedInputStream in) throws IOException {
+        in.mark(2);
+        int header = in.read() << 8 | in.read();
+        in.reset();
+        if (header == GZIP_MAGIC) {
+            return GZIP;
+        }
+        boolean zlib = header >= 0 && (header >>> 8 & 0x0f) == Deflater.DEFLATED && header % 31 == 0;
+        return zlib ? DEFLATE : NONE;
+    }
+
+    // EFFECTS: returns a stream that reads in, decompressing it with whichever compression it was written with;
+    // throws IOException if in cannot be read
+    public static InputStream open(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+        return detect(buffered).decompress(buffered);
+    }
+}
@@ -0,0 +1,255 @@
+package persistence;
+
+import model.Event;
+import model.EventLog;
+import model.EventMessage;
+import model.EventLogListener;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Represents an append-only binary journal of events, kept on disk as they are logged.
+// Logging an event only puts it on a lock-free queue, a background thread takes whatever has queued up,
+// writes it to the file in one write and forces it to disk once per batch (group commit).
+// Events made from a template are stored as the template and its arguments, so the writer never formats a
+// description. The file starts with MAGIC, then each event is a record of:
+//     int    length of the rest of the record
+//     long   time stamp of the event, in nanoseconds since the epoch
+//     byte   ordinal of the event's EventMessage, or -1 for a plain description
+// followed, for a plain description, by
+//     bytes  the description, in UTF-8
+// or, for an event made from a template, by NUMBERS and the two int arguments, or by TEXT and the two arguments as
+//     int    length of the argument in UTF-8, or -1 for null
+//     bytes  the argument, in UTF-8
+// A record cut short by a crash is ignored when the journal is read, see EventJournalReader.
+public class EventJournal implements EventLogListener {
+    static final int MAGIC = 0x56534A32;
+    static final int RECORD_HEADER = Long.BYTES + 1;
+    static final byte PLAIN = -1;
+    static final byte NUMBERS = 0;
+    static final byte TEXT = 1;
+    static final int NO_TEXT = -1;
+    // Number of events a game keeps in memory, older ones are dropped and only found in the journal.
+    public static final int GAME_LOG_CAPACITY = 10000;
+    private static final long COMMIT_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final int MAX_BATCH = 4096;
+    private static final int INITIAL_BUFFER = 64 * 1024;
+
+    private final String destination;
+    private final Queue<Event> pending;
+    private FileChannel channel;
+    private ByteBuffer buffer;
+    private Thread writer;
+    private volatile boolean running;
+    private volatile long written;
+    private IOException failure;
+
+    // EFFECTS: constructs a journal that appends to destination file
+    public EventJournal(String destination) {
+        this.destination = destination;
+        this.pending = new ConcurrentLinkedQueue<>();
+    }
+
+    // MODIFIES: EventLog
+    // EFFECTS: sets up the event log of a game: the log keeps only the newest GAME_LOG_CAPACITY events, and every
+    // event logged from now on is journaled to destination until the program exits; returns the open journal;
+    // throws IOException if the journal cannot be opened, the log is bounded either way
+    public static EventJournal startGameLog(String destination) throws IOException {
+        EventLog.getInstance().setCapacity(GAME_LOG_CAPACITY);
+        EventJournal journal = new EventJournal(destination);
+        journal.open();
+        EventLog.getInstance().addListener(journal);
+        Runtime.getRuntime().addShutdownHook(new Thread(journal::closeAtExit, "event-journal-close"));
+        return journal;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: opens the destination file for appending, writing the header if it is new,
+    // and starts the background writer; throws IOException if the file cannot be opened
+    // or holds something other than a journal of this version
+    public void open() throws IOException {
+        channel = FileChannel.open(Paths.get(destination), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = ByteBuffer.allocate(INITIAL_BUFFER);
+        if (channel.size() == 0) {
+            buffer.putInt(MAGIC).flip();
+            writeBuffer();
+        } else if (!hasHeader()) {
+            channel.close();
+            throw new IOException(destination + " is not an event journal of this version");
+        }
+        channel.position(channel.size());
+        running = true;
+        writer = new Thread(this::run, "event-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: queues event to be written, never blocks; events logged after close are ignored
+    @Override
+    public void eventLogged(Event event) {
+        if (running) {
+            pending.offer(event);
+        }
+    }
+
+    // EFFECTS: returns the number of events written to the file so far
+    public long getWrittenCount() {
+        return written;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes every queued event, stops the background writer and closes the file;
+    // does nothing if the journal was never opened; throws IOException if any write failed
+    public void close() throws IOException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes the journal as the program exits, where the console is the only place left to report a failure
+    private void closeAtExit() {
+        try {
+            close();
+        } catch (IOException e) {
+            System.out.println("Unable to finish event journal: " + e.getMessage());
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes batches of queued events until the journal is closed and the queue is empty,
+    // waiting a commit interval whenever the queue is empty
+    private void run() {
+        try {
+            while (running || !pending.isEmpty()) {
+                if (!writeBatch()) {
+                    LockSupport.parkNanos(this, COMMIT_INTERVAL_NANOS);
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+            running = false;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes up to MAX_BATCH queued events in one write and forces them to disk,
+    // returns false if there was nothing to write
+    private boolean writeBatch() throws IOException {
+        buffer.clear();
+        int batch = 0;
+        Event event;
+        while (batch < MAX_BATCH && (event = pending.poll()) != null) {
+            encode(event);
+            batch++;
+        }
+        if (batch == 0) {
+            return false;
+        }
+        buffer.flip();
+        writeBuffer();
+        channel.force(false);
+        written += batch;
+        return true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends the record of event to the buffer; only reads what the event was made from,
+    // so it is safe while other threads read the event
+    private void encode(Event event) {
+        EventMessage message = event.getMessage();
+        if (message == null) {
+            byte[] description = event.getDescription().getBytes(StandardCharsets.UTF_8);
+            startRecord(event, PLAIN, description.length);
+            buffer.put(description);
+        } else if (event.isNumeric()) {
+            startRecord(event, (byte) message.ordinal(), 1 + 2 * Integer.BYTES);
+            buffer.put(NUMBERS);
+            buffer.putInt(event.getFirstNumber());
+            buffer.putInt(event.getSecondNumber());
+        } else {
+            byte[] first = text(event.getFirst());
+            byte[] second = text(event.getSecond());
+            startRecord(event, (byte) message.ordinal(), 1 + 2 * Integer.BYTES + size(first) + size(second));
+            buffer.put(TEXT);
+            putText(first);
+            putText(second);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: makes room in the buffer for a record with a body of the given length and writes its header,
+    // the buffer is grown if the record does not fit
+    private void startRecord(Event event, byte ordinal, int body) {
+        int length = RECORD_HEADER + body;
+        if (buffer.remaining() < Integer.BYTES + length) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + length * 2));
+            buffer.flip();
+            buffer = bigger.put(buffer);
+        }
+        buffer.putInt(length);
+        buffer.putLong(event.getTimestamp());
+        buffer.put(ordinal);
+    }
+
+    // EFFECTS: returns argument as UTF-8 text, or null if it is null
+    private static byte[] text(Object argument) {
+        return argument == null ? null : String.valueOf(argument).getBytes(StandardCharsets.UTF_8);
+    }
+
+    // EFFECTS: returns the number of bytes text takes in a record after its length
+    private static int size(byte[] text) {
+        return text == null ? 0 : text.length;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends text and its length to the buffer, or NO_TEXT if it is null
+    private void putText(byte[] text) {
+        if (text == null) {
+            buffer.putInt(NO_TEXT);
+        } else {
+            buffer.putInt(text.length);
+            buffer.put(text);
+        }
+    }
+
+    // EFFECTS: returns true if the file starts with MAGIC
+    private boolean hasHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                return false;
+            }
+        }
+        return header.getInt(0) == MAGIC;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes everything left in the buffer to the file
+    private void writeBuffer() throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
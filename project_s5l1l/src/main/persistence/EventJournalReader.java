@@ -0,0 +1,92 @@
+package persistence;
+
+import model.EventMessage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+// Represents a reader that reads the events of a journal written by EventJournal.
+// It can also be run on its own to print a journal: java persistence.EventJournalReader <file>
+public class EventJournalReader {
+    private String source;
+
+    // EFFECTS: constructs reader to read from source file
+    public EventJournalReader(String source) {
+        this.source = source;
+    }
+
+    // EFFECTS: prints every entry of the journal named by the first argument
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.out.println("Usage: EventJournalReader <journal file>");
+            return;
+        }
+        for (JournalEntry entry : new EventJournalReader(args[0]).read()) {
+            System.out.println(entry);
+        }
+    }
+
+    // EFFECTS: reads the entries of the journal in the order they were written and returns them,
+    // a record cut short at the end of the file is left out;
+    // throws IOException if the file cannot be read or is not a journal
+    public List<JournalEntry> read() throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(Paths.get(source)));
+        if (data.remaining() < Integer.BYTES || data.getInt() != EventJournal.MAGIC) {
+            throw new IOException(source + " is not an event journal");
+        }
+        List<JournalEntry> entries = new ArrayList<>();
+        while (data.remaining() >= Integer.BYTES) {
+            int length = data.getInt();
+            if (length < EventJournal.RECORD_HEADER || length > data.remaining()) {
+                break;
+            }
+            entries.add(parseEntry(data, length));
+        }
+        return entries;
+    }
+
+    // MODIFIES: data
+    // EFFECTS: parses the record of length bytes at the position of data and returns it as an entry,
+    // formatting the description of an event made from a template from the arguments stored with it;
+    // throws IOException if the record names a message this version does not have
+    private JournalEntry parseEntry(ByteBuffer data, int length) throws IOException {
+        int end = data.position() + length;
+        long timestamp = data.getLong();
+        byte ordinal = data.get();
+        if (ordinal == EventJournal.PLAIN) {
+            byte[] description = new byte[end - data.position()];
+            data.get(description);
+            return new JournalEntry(timestamp, null, new String(description, StandardCharsets.UTF_8));
+        }
+        EventMessage[] messages = EventMessage.values();
+        if (ordinal < 0 || ordinal >= messages.length) {
+            throw new IOException(source + " has an event of unknown message " + ordinal);
+        }
+        EventMessage message = messages[ordinal];
+        String description;
+        if (data.get() == EventJournal.NUMBERS) {
+            description = String.format(message.getTemplate(), data.getInt(), data.getInt());
+        } else {
+            description = String.format(message.getTemplate(), readText(data), readText(data));
+        }
+        data.position(end);
+        return new JournalEntry(timestamp, message, description);
+    }
+
+    // MODIFIES: data
+    // EFFECTS: reads an argument stored as text at the position of data, returns null if it was null
+    private static String readText(ByteBuffer data) {
+        int length = data.getInt();
+        if (length == EventJournal.NO_TEXT) {
+            return null;
+        }
+        byte[] text = new byte[length];
+        data.get(text);
+        return new String(text, StandardCharsets.UTF_8);
+    }
+}
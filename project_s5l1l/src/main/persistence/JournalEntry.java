@@ -0,0 +1,43 @@
+package persistence;
+
+import model.EventMessage;
+
+import java.util.Date;
+
+// Represents one event read back from an EventJournal: when it happened, which message it was made from
+// (null for a plain description) and its description.
+public class JournalEntry {
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private final long timestamp;
+    private final EventMessage message;
+    private final String description;
+
+    // EFFECTS: constructs an entry with the given time stamp, message and description
+    public JournalEntry(long timestamp, EventMessage message, String description) {
+        this.timestamp = timestamp;
+        this.message = message;
+        this.description = description;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public Date getDate() {
+        return new Date(Math.floorDiv(timestamp, NANOS_PER_MILLI));
+    }
+
+    public EventMessage getMessage() {
+        return message;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public String toString() {
+        return getDate() + "\n" + description;
+    }
+}
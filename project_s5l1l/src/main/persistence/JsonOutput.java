@@ -0,0 +1,223 @@
+package persistence;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+// Represents a JSON token writer that writes objects, arrays, names and values straight to a Writer as they are
+// given, so a village can be saved without building a tree of JSONObjects or a String of the whole file.
+// With an indent of 0 the output is compact, otherwise each member and element is put on its own line indented
+// by indent spaces per level, the way JSONObject.toString(indent) lays it out.
+// Compact JSON already written can be kept and spliced back in as a value with raw(...) (see compact(...)).
+public class JsonOutput {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Writer out;
+    private final int indent;
+    private boolean[] empty;
+    private int depth;
+    private boolean afterName;
+
+    // REQUIRES: indent >= 0
+    // EFFECTS: constructs a JSON writer that writes to out, compact if indent is 0
+    public JsonOutput(Writer out, int indent) {
+        this.out = out;
+        this.indent = indent;
+        this.empty = new boolean[8];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts an object
+    public JsonOutput beginObject() throws IOException {
+        return open('{');
+    }
+
+    // REQUIRES: the innermost open value is an object
+    // MODIFIES: this
+    // EFFECTS: ends the innermost object
+    public JsonOutput endObject() throws IOException {
+        return close('}');
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts an array
+    public JsonOutput beginArray() throws IOException {
+        return open('[');
+    }
+
+    // REQUIRES: the innermost open value is an array
+    // MODIFIES: this
+    // EFFECTS: ends the innermost array
+    public JsonOutput endArray() throws IOException {
+        return close(']');
+    }
+
+    // REQUIRES: the innermost open value is an object and the last name given has a value
+    // MODIFIES: this
+    // EFFECTS: writes the name of the next member of the innermost object
+    public JsonOutput name(String name) throws IOException {
+        beforeValue();
+        string(name);
+        out.write(indent > 0 ? ": " : ":");
+        afterName = true;
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes a string value
+    public JsonOutput value(String value) throws IOException {
+        beforeValue();
+        string(value);
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes a number value
+    public JsonOutput value(long value) throws IOException {
+        beforeValue();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes a boolean value
+    public JsonOutput value(boolean value) throws IOException {
+        beforeValue();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the members and elements of value
+    public JsonOutput value(StreamWritable value) throws IOException {
+        value.writeJson(this);
+        return this;
+    }
+
+    // REQUIRES: json is a single compact JSON value, as written by compact(...)
+    // MODIFIES: this
+    // EFFECTS: writes json as the next value without looking at it, used to splice in cached fragments
+    public JsonOutput raw(String json) throws IOException {
+        beforeValue();
+        out.write(json);
+        return this;
+    }
+
+    // EFFECTS: returns true if this writer writes compact JSON, so compact fragments can be spliced in with raw(...)
+    public boolean isCompact() {
+        return indent == 0;
+    }
+
+    // EFFECTS: returns value written as compact JSON
+    public static String compact(StreamWritable value) {
+        StringWriter text = new StringWriter();
+        try {
+            value.writeJson(new JsonOutput(text, 0));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return text.toString();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes everything written so far to the underlying writer
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes bracket as a new value and opens a level
+    private JsonOutput open(char bracket) throws IOException {
+        beforeValue();
+        out.write(bracket);
+        if (depth == empty.length) {
+            empty = Arrays.copyOf(empty, depth * 2);
+        }
+        empty[depth++] = true;
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes the innermost level with bracket, on its own line unless the level is empty
+    private JsonOutput close(char bracket) throws IOException {
+        depth--;
+        if (!empty[depth]) {
+            newLine();
+        }
+        out.write(bracket);
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes what goes before a value: nothing right after a name, otherwise the separator from the value
+    // before it in the same level and the line break and indentation
+    private void beforeValue() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0) {
+            if (!empty[depth - 1]) {
+                out.write(',');
+            }
+            empty[depth - 1] = false;
+            newLine();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts a new line indented for the current depth, nothing if compact
+    private void newLine() throws IOException {
+        if (indent > 0) {
+            out.write('\n');
+            for (int i = 0; i < depth * indent; i++) {
+                out.write(' ');
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes s as a quoted JSON string, escaping quotes, backslashes and control characters
+    private void string(String s) throws IOException {
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\' || c < 0x20) {
+                out.write(s, start, i - start);
+                escape(c);
+                start = i + 1;
+            }
+        }
+        out.write(s, start, s.length() - start);
+        out.write('"');
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the escape sequence of c
+    private void escape(char c) throws IOException {
+        switch (c) {
+            case '"':
+                out.write("\\\"");
+                break;
+            case '\\':
+                out.write("\\\\");
+                break;
+            case '\n':
+                out.write("\\n");
+                break;
+            case '\r':
+                out.write("\\r");
+                break;
+            case '\t':
+                out.write("\\t");
+                break;
+            default:
+                out.write("\\u00");
+                out.write(HEX[c >> 4]);
+                out.write(HEX[c & 0xf]);
+        }
+    }
+}
@@ -7,20 +7,33 @@
 package persistence;
 
 import model.Building;
-import model.Citizen;
+import model.Resource;
 import model.Village;
+import model.VillageBuilder;
 import org.json.JSONArray;
 import org.json.JSONObject;
+import org.json.JSONTokener;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.stream.Stream;
+import java.util.function.Consumer;
 
 // This code was modified from JsonSerializationDemo provided by the course instructors of CPSC 210 at UBC
 // Represents a reader that reads village from JSON data stored in file
+// The file is read in a single buffered pass, decompressed on the way if it was written compressed
+// (see Compression): the top level of the village is pulled
+// token by token, and citizens and buildings are added to the village one at a time as they are read,
+// so only one citizen or building is held as a JSONObject at once however large the save is.
+// The village is filled in through a VillageBuilder, so nothing is logged while reading, and workers are put back
+// in their buildings once every citizen has been read.
 public class JsonReader {
+    private static final int BUFFER_SIZE = 64 * 1024;
 
     private String source;
 
@@ -33,82 +46,116 @@ public class JsonReader {
     // EFFECTS: reads village from file and returns it;
     // throws IOException if an error occurs reading data from file
     public Village read() throws IOException {
-        String jsonData = readFile(source);
-        JSONObject jsonObject = new JSONObject(jsonData);
-        return parseVillage(jsonObject);
+        try (Reader reader = openReader(source)) {
+            return parseVillage(new JSONTokener(reader));
+        }
     }
 
-    // EFFECTS: reads source file as string and returns it
-    private String readFile(String source) throws IOException {
-        StringBuilder contentBuilder = new StringBuilder();
+    // EFFECTS: opens source file as a buffered UTF-8 reader, decompressing it if it is compressed
+    private Reader openReader(String source) throws IOException {
+        InputStream in = Compression.open(Files.newInputStream(Paths.get(source)));
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8.newDecoder()), BUFFER_SIZE);
+    }
 
-        try (Stream<String> stream = Files.lines(Paths.get(source), StandardCharsets.UTF_8)) {
-            stream.forEach(s -> contentBuilder.append(s));
+    // EFFECTS: parses village from the JSON object at the start of tokener and returns it
+    private Village parseVillage(JSONTokener tokener) {
+        VillageBuilder village = new VillageBuilder();
+        expect(tokener, '{');
+        if (tokener.nextClean() != '}') {
+            tokener.back();
+            do {
+                String key = nextKey(tokener);
+                expect(tokener, ':');
+                parseField(village, key, tokener);
+            } while (nextSeparator(tokener, '}') == ',');
         }
-
-        return contentBuilder.toString();
+        return village.build();
     }
 
-    // EFFECTS: parses village from JSON object and returns it
-    private Village parseVillage(JSONObject jsonObject) {
-
-        Village village = new Village();
-        village.getCitizens().clear();
-        village.getBuildings().clear();
-
-        village.changeFood(-village.getTotalFood());
-        village.changeFood(jsonObject.getInt("totalFood"));
-
-        village.changeStone(-village.getTotalStone());
-        village.changeStone(jsonObject.getInt("totalStone"));
-
-        village.changeWood(-village.getTotalWood());
-        village.changeWood(jsonObject.getInt("totalWood"));
-
-        addBuildings(village, jsonObject);
-        addCitizens(village, jsonObject);
-        return village;
+    // MODIFIES: village
+    // EFFECTS: parses the value of the village field key from tokener into village, unknown fields are skipped
+    private void parseField(VillageBuilder village, String key, JSONTokener tokener) {
+        switch (key) {
+            case "citizens":
+                parseArray(tokener, json -> village.addCitizen(json.getString("name"), json.getBoolean("isWorking")));
+                break;
+            case "buildings":
+                parseArray(tokener, json -> addBuilding(village, json));
+                break;
+            case "totalFood":
+                village.setTotal(Resource.FOOD, nextInt(tokener));
+                break;
+            case "totalStone":
+                village.setTotal(Resource.STONE, nextInt(tokener));
+                break;
+            case "totalWood":
+                village.setTotal(Resource.WOOD, nextInt(tokener));
+                break;
+            case "turn":
+                village.setTurn(nextInt(tokener));
+                break;
+            default:
+                tokener.nextValue();
+        }
     }
 
+    // EFFECTS: parses a JSON array of objects from tokener, handing each object to element as soon as it is read
+    private void parseArray(JSONTokener tokener, Consumer<JSONObject> element) {
+        expect(tokener, '[');
+        if (tokener.nextClean() != ']') {
+            tokener.back();
+            do {
+                element.accept(new JSONObject(tokener));
+            } while (nextSeparator(tokener, ']') == ',');
+        }
+    }
 
-    // EFFECTS: parses citizens JSONArray
-    private void addCitizens(Village village, JSONObject jsonObject) {
-        JSONArray jsonArray = jsonObject.getJSONArray("citizens");
+    // EFFECTS: parses an object key from tokener and returns it
+    private String nextKey(JSONTokener tokener) {
+        expect(tokener, '"');
+        return tokener.nextString('"');
+    }
 
-        for (Object json : jsonArray) {
-            JSONObject nextCitizen = (JSONObject) json;
-            addCitizen(village, nextCitizen);
+    // EFFECTS: parses a number from tokener and returns it as an int
+    private int nextInt(JSONTokener tokener) {
+        Object value = tokener.nextValue();
+        if (!(value instanceof Number)) {
+            throw tokener.syntaxError("Expected a number");
         }
+        return ((Number) value).intValue();
     }
 
-    // MODIFIES: village
-    // EFFECTS: parses citizen from JSON object and adds them to village
-    private void addCitizen(Village village, JSONObject jsonObject) {
-        String name = jsonObject.getString("name");
-        boolean isWorking = jsonObject.getBoolean("isWorking");
-        Citizen citizen = new Citizen(name, isWorking);
-        village.addCitizen(citizen);
+    // EFFECTS: reads the next character, which must be c
+    private void expect(JSONTokener tokener, char c) {
+        if (tokener.nextClean() != c) {
+            throw tokener.syntaxError("Expected '" + c + "'");
+        }
     }
 
-    // EFFECTS: parses buildings from JSON object and adds them to village
-    private void addBuildings(Village village, JSONObject jsonObject) {
-        JSONArray jsonArray = jsonObject.getJSONArray("buildings");
-
-        for (Object json : jsonArray) {
-            JSONObject nextBuilding = (JSONObject) json;
-            addBuilding(village, nextBuilding);
+    // EFFECTS: reads and returns the character after a value, which must be ',' or close
+    private char nextSeparator(JSONTokener tokener, char close) {
+        char c = tokener.nextClean();
+        if (c != ',' && c != close) {
+            throw tokener.syntaxError("Expected ',' or '" + close + "'");
         }
+        return c;
     }
 
     // MODIFIES: village
-    // EFFECTS: parses building from JSON object and adds it to village
-    private void addBuilding(Village village, JSONObject jsonObject) {
+    // EFFECTS: parses building from JSON object and adds it to village with its workers, a worker saved with
+    // the position of a citizen of the village is that citizen, one saved without it is matched by name
+    private void addBuilding(VillageBuilder village, JSONObject jsonObject) {
         String name = jsonObject.getString("name");
         String type = jsonObject.getString("type");
-
-        Building building = new Building(type, name);
-        village.getBuildings().add(building);
+        village.addBuilding(type, name, jsonObject.optInt("maxWorkers", Building.DEFAULT_MAX_WORKERS));
+        JSONArray workers = jsonObject.optJSONArray("workers");
+        for (int i = 0; workers != null && i < workers.length(); i++) {
+            JSONObject worker = workers.getJSONObject(i);
+            if (worker.has("citizen")) {
+                village.addWorker(worker.getInt("citizen"));
+            } else {
+                village.addWorker(worker.getString("name"), worker.getBoolean("isWorking"));
+            }
+        }
     }
-
-
 }
@@ -7,46 +7,69 @@
 package persistence;
 
 import model.Village;
-import org.json.JSONObject;
 
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.PrintWriter;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
-// Represents a writer that writes JSON representation of village to file
+// Represents a writer that writes JSON representation of village to file,
+// compressed as it is written if the writer is given a Compression (JsonReader detects it on read).
+// The village is streamed token by token through a JsonOutput (see StreamWritable), so neither a JSONObject tree
+// nor a String of the whole file is built, and it can be written compact instead of indented.
 public class JsonWriter {
     private static final int TAB = 4;
-    private PrintWriter writer;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private Writer writer;
     private String destination;
+    private Compression compression;
+    private int level;
+    private boolean compact;
 
     // EFFECTS: constructs writer to write to destination file
     public JsonWriter(String destination) {
+        this(destination, Compression.NONE, Compression.DEFAULT_LEVEL);
+    }
+
+    // REQUIRES: level is Compression.DEFAULT_LEVEL or between 0 and 9
+    // EFFECTS: constructs writer to write to destination file compressed with compression at level
+    public JsonWriter(String destination, Compression compression, int level) {
         this.destination = destination;
+        this.compression = compression;
+        this.level = level;
     }
 
     // MODIFIES: this
-    // EFFECTS: opens writer; throws FileNotFoundException if destination file cannot
-    // be opened for writing
-    public void open() throws FileNotFoundException {
-        writer = new PrintWriter(new File(destination));
+    // EFFECTS: sets whether the JSON is written compact, without line breaks and indentation
+    public void setCompact(boolean compact) {
+        this.compact = compact;
     }
 
     // MODIFIES: this
-    // EFFECTS: writes JSON representation of village to file
-    public void write(Village village) {
-        JSONObject json = village.toJson();
-        saveToFile(json.toString(TAB));
+    // EFFECTS: opens writer; throws IOException if destination file cannot
+    // be opened for writing
+    public void open() throws IOException {
+        FileOutputStream file = new FileOutputStream(destination);
+        try {
+            writer = new BufferedWriter(new OutputStreamWriter(compression.compress(file, level),
+                    StandardCharsets.UTF_8), BUFFER_SIZE);
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
     }
 
     // MODIFIES: this
-    // EFFECTS: closes writer
-    public void close() {
-        writer.close();
+    // EFFECTS: writes JSON representation of village to file; throws IOException if it cannot be written
+    public void write(Village village) throws IOException {
+        village.writeJson(new JsonOutput(writer, compact ? 0 : TAB));
     }
 
     // MODIFIES: this
-    // EFFECTS: writes string to file
-    private void saveToFile(String json) {
-        writer.print(json);
+    // EFFECTS: closes writer; throws IOException if what is left in the buffer cannot be written
+    public void close() throws IOException {
+        writer.close();
     }
 }
@@ -0,0 +1,251 @@
+package persistence;
+
+import model.Resource;
+import model.Village;
+import model.VillageBuilder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import static persistence.MappedSnapshotWriter.BUILDING_SIZE;
+import static persistence.MappedSnapshotWriter.HEADER_SIZE;
+import static persistence.MappedSnapshotWriter.WORKER_SIZE;
+import static persistence.MappedSnapshotWriter.WORKING;
+
+// Represents a village snapshot written by MappedSnapshotWriter, read in place from a memory-mapped file.
+// Opening a snapshot only reads its header; a citizen, building or name is decoded from the mapped file each time it
+// is asked for, so snapshots much larger than the heap can be inspected. A mapped buffer holds at most 2GB, so the
+// file is mapped as segments of 2^segmentShift bytes, each overlapping the next by enough for one number to be read
+// from either. Reading methods may be called from any number of threads.
+public class MappedSnapshot implements Closeable {
+    static final int SEGMENT_SHIFT = 30;
+    private static final int OVERLAP = 8;
+
+    private final String source;
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final int segmentShift;
+    private final long segmentMask;
+    private final int[] header;
+    private final long citizensAt;
+    private final long buildingsAt;
+    private final long workersAt;
+    private final long heapAt;
+
+    // EFFECTS: maps source file in segments of 2^segmentShift bytes and reads its header;
+    // throws IOException if source cannot be read or is not a mapped snapshot of a known version
+    private MappedSnapshot(String source, int segmentShift) throws IOException {
+        this.source = source;
+        this.channel = FileChannel.open(Paths.get(source), StandardOpenOption.READ);
+        this.segmentShift = segmentShift;
+        this.segmentMask = (1L << segmentShift) - 1;
+        try {
+            this.segments = map(channel, segmentShift);
+            this.header = readHeader();
+            this.citizensAt = HEADER_SIZE + 8L * (getStringCount() + 1);
+            this.buildingsAt = citizensAt + 4L * getCitizenCount();
+            this.workersAt = buildingsAt + (long) BUILDING_SIZE * getBuildingCount();
+            this.heapAt = workersAt + (long) WORKER_SIZE * header[9];
+            if (heapAt > channel.size() || heapAt + getLong(citizensAt - 8) > channel.size()) {
+                throw new IOException(source + " is cut short");
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // EFFECTS: opens the mapped snapshot in source file;
+    // throws IOException if source cannot be read or is not a mapped snapshot of a known version
+    public static MappedSnapshot open(String source) throws IOException {
+        return new MappedSnapshot(source, SEGMENT_SHIFT);
+    }
+
+    // EFFECTS: opens the mapped snapshot in source file mapped as segments of 2^segmentShift bytes,
+    // so reads across segment boundaries can be tested without multi-GB files
+    static MappedSnapshot open(String source, int segmentShift) throws IOException {
+        return new MappedSnapshot(source, segmentShift);
+    }
+
+    public int getTurn() {
+        return header[2];
+    }
+
+    public int getTotalFood() {
+        return header[3];
+    }
+
+    public int getTotalWood() {
+        return header[4];
+    }
+
+    public int getTotalStone() {
+        return header[5];
+    }
+
+    public int getCitizenCount() {
+        return header[7];
+    }
+
+    public int getBuildingCount() {
+        return header[8];
+    }
+
+    // REQUIRES: 0 <= citizen < getCitizenCount()
+    // EFFECTS: returns the name of the citizen at position citizen in the village
+    public String getCitizenName(int citizen) {
+        return getString(getInt(citizensAt + 4L * citizen) & ~WORKING);
+    }
+
+    // REQUIRES: 0 <= citizen < getCitizenCount()
+    public boolean isCitizenWorking(int citizen) {
+        return (getInt(citizensAt + 4L * citizen) & WORKING) != 0;
+    }
+
+    // REQUIRES: 0 <= building < getBuildingCount()
+    public String getBuildingType(int building) {
+        return getString(buildingField(building, 0));
+    }
+
+    // REQUIRES: 0 <= building < getBuildingCount()
+    public String getBuildingName(int building) {
+        return getString(buildingField(building, 1));
+    }
+
+    // REQUIRES: 0 <= building < getBuildingCount()
+    public int getMaxWorkers(int building) {
+        return buildingField(building, 2);
+    }
+
+    // REQUIRES: 0 <= building < getBuildingCount()
+    public int getWorkerCount(int building) {
+        return buildingField(building, 4);
+    }
+
+    // REQUIRES: 0 <= building < getBuildingCount(), 0 <= worker < getWorkerCount(building)
+    // EFFECTS: returns the position in the village of the worker, or -1 if the worker is not a village citizen
+    public int getWorker(int building, int worker) {
+        return getInt(workerAt(building, worker));
+    }
+
+    // REQUIRES: getWorker(building, worker) == -1
+    // EFFECTS: returns the name of a worker who is not a village citizen
+    public String getOutsiderName(int building, int worker) {
+        return getString(getInt(workerAt(building, worker) + 4) & ~WORKING);
+    }
+
+    // REQUIRES: getWorker(building, worker) == -1
+    public boolean isOutsiderWorking(int building, int worker) {
+        return (getInt(workerAt(building, worker) + 4) & WORKING) != 0;
+    }
+
+    // EFFECTS: decodes the whole snapshot into a village and returns it
+    public Village toVillage() {
+        VillageBuilder village = new VillageBuilder();
+        village.setTurn(getTurn());
+        village.setTotal(Resource.FOOD, getTotalFood());
+        village.setTotal(Resource.WOOD, getTotalWood());
+        village.setTotal(Resource.STONE, getTotalStone());
+        for (int i = 0; i < getCitizenCount(); i++) {
+            village.addCitizen(getCitizenName(i), isCitizenWorking(i));
+        }
+        for (int b = 0; b < getBuildingCount(); b++) {
+            village.addBuilding(getBuildingType(b), getBuildingName(b), getMaxWorkers(b));
+            for (int w = 0; w < getWorkerCount(b); w++) {
+                int index = getWorker(b, w);
+                if (index == -1) {
+                    village.addOutsider(getOutsiderName(b, w), isOutsiderWorking(b, w));
+                } else {
+                    village.addWorker(index);
+                }
+            }
+        }
+        return village.build();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes the file, the mapping is released once the snapshot is no longer referenced;
+    // the snapshot must not be read afterwards
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // EFFECTS: maps the whole file read-only as overlapping segments of 2^segmentShift bytes
+    private static MappedByteBuffer[] map(FileChannel channel, int segmentShift) throws IOException {
+        long size = channel.size();
+        long segmentSize = 1L << segmentShift;
+        int count = (int) Math.max(1, (size + segmentSize - 1) >>> segmentShift);
+        MappedByteBuffer[] segments = new MappedByteBuffer[count];
+        for (int i = 0; i < segments.length; i++) {
+            long start = (long) i << segmentShift;
+            long length = Math.min(size - start, segmentSize + OVERLAP);
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        }
+        return segments;
+    }
+
+    // EFFECTS: reads and checks the header fields
+    private int[] readHeader() throws IOException {
+        if (channel.size() < HEADER_SIZE || getInt(0) != MappedSnapshotWriter.MAGIC) {
+            throw new IOException(source + " is not a mapped snapshot");
+        }
+        if (getInt(4) != MappedSnapshotWriter.VERSION) {
+            throw new IOException(source + " has unknown snapshot version " + getInt(4));
+        }
+        int[] fields = new int[HEADER_SIZE / 4];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = getInt(4L * i);
+        }
+        return fields;
+    }
+
+    // EFFECTS: returns field number field of the record of building
+    private int buildingField(int building, int field) {
+        return getInt(buildingsAt + (long) BUILDING_SIZE * building + 4L * field);
+    }
+
+    // EFFECTS: returns the file position of the record of worker of building
+    private long workerAt(int building, int worker) {
+        return workersAt + (long) WORKER_SIZE * (buildingField(building, 3) + worker);
+    }
+
+    // EFFECTS: returns the number of strings in the heap
+    private int getStringCount() {
+        return header[6];
+    }
+
+    // EFFECTS: decodes string number index from the heap
+    private String getString(int index) {
+        long at = HEADER_SIZE + 8L * index;
+        long start = getLong(at);
+        byte[] bytes = new byte[(int) (getLong(at + 8) - start)];
+        long position = heapAt + start;
+        int done = 0;
+        while (done < bytes.length) {
+            ByteBuffer segment = segments[(int) (position >>> segmentShift)].duplicate();
+            segment.position((int) (position & segmentMask));
+            int length = Math.min(bytes.length - done, segment.remaining());
+            segment.get(bytes, done, length);
+            done += length;
+            position += length;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // EFFECTS: returns the int at position in the file
+    private int getInt(long position) {
+        return segments[(int) (position >>> segmentShift)].getInt((int) (position & segmentMask));
+    }
+
+    // EFFECTS: returns the long at position in the file
+    private long getLong(long position) {
+        return segments[(int) (position >>> segmentShift)].getLong((int) (position & segmentMask));
+    }
+}
@@ -0,0 +1,154 @@
+package persistence;
+
+import model.BuildingSnapshot;
+import model.EventLog;
+import model.EventMessage;
+import model.Village;
+import model.VillageSnapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+// Represents a writer that writes village to file laid out to be memory-mapped and read in place (see MappedSnapshot).
+// Every table has fixed width records, so any citizen or building is found from its index without reading the
+// records before it, and strings are kept once in a heap at the end of the file. Numbers are big-endian. The layout is:
+//     int     MAGIC, VERSION
+//     int     turn, totalFood, totalWood, totalStone
+//     int     number of strings, citizens, buildings and workers
+//     long    for each string the offset of its UTF-8 bytes in the heap, then the length of the heap
+//     int     for each citizen its name index, with WORKING set if the citizen is working
+//     int     for each building its type index, name index, maxWorkers, index of its first worker and its number
+//             of workers
+//     int     for each worker the index of the citizen, then 0; or -1 for a worker who is not a village citizen,
+//             then its name index, with WORKING set if it is working
+//     byte    the heap
+public class MappedSnapshotWriter {
+    static final int MAGIC = 0x5653534D;
+    static final int VERSION = 1;
+    static final int WORKING = 0x80000000;
+    static final int HEADER_SIZE = 10 * 4;
+    static final int BUILDING_SIZE = 5 * 4;
+    static final int WORKER_SIZE = 2 * 4;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private DataOutputStream out;
+    private String destination;
+
+    // EFFECTS: constructs writer to write to destination file
+    public MappedSnapshotWriter(String destination) {
+        this.destination = destination;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: opens writer; throws FileNotFoundException if destination file cannot
+    // be opened for writing
+    public void open() throws FileNotFoundException {
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(destination), BUFFER_SIZE));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the mapped representation of village to file; throws IOException if it cannot be written
+    public void write(Village village) throws IOException {
+        write(village.snapshot());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the mapped representation of the village state in snapshot to file;
+    // throws IOException if it cannot be written
+    public void write(VillageSnapshot snapshot) throws IOException {
+        Map<String, Integer> strings = BinaryWriter.stringTable(snapshot);
+        byte[][] heap = encode(BinaryWriter.inIndexOrder(strings));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(snapshot.getTurn());
+        out.writeInt(snapshot.getTotalFood());
+        out.writeInt(snapshot.getTotalWood());
+        out.writeInt(snapshot.getTotalStone());
+        out.writeInt(heap.length);
+        out.writeInt(snapshot.getCitizenCount());
+        out.writeInt(snapshot.getBuildingCount());
+        out.writeInt(countWorkers(snapshot));
+        writeOffsets(heap);
+        for (int i = 0; i < snapshot.getCitizenCount(); i++) {
+            out.writeInt(snapshot.getCitizenName(i) | (snapshot.isCitizenWorking(i) ? WORKING : 0));
+        }
+        writeBuildings(snapshot, strings);
+        writeWorkers(snapshot, strings);
+        for (byte[] bytes : heap) {
+            out.write(bytes);
+        }
+        EventLog.getInstance().log(EventMessage.SAVED, null, null);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes writer
+    public void close() throws IOException {
+        out.close();
+    }
+
+    // EFFECTS: returns the UTF-8 bytes of every string, in the same order
+    private static byte[][] encode(String[] strings) {
+        byte[][] bytes = new byte[strings.length][];
+        for (int i = 0; i < strings.length; i++) {
+            bytes[i] = strings[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+
+    // EFFECTS: returns the number of workers of every building of snapshot together
+    private static int countWorkers(VillageSnapshot snapshot) {
+        int workers = 0;
+        for (int i = 0; i < snapshot.getBuildingCount(); i++) {
+            workers += snapshot.getBuilding(i).getWorkerCount();
+        }
+        return workers;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the offset of every string in the heap followed by the length of the heap
+    private void writeOffsets(byte[][] heap) throws IOException {
+        long offset = 0;
+        for (byte[] bytes : heap) {
+            out.writeLong(offset);
+            offset += bytes.length;
+        }
+        out.writeLong(offset);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the building table, the workers of each building follow those of the building before it
+    private void writeBuildings(VillageSnapshot snapshot, Map<String, Integer> strings) throws IOException {
+        int firstWorker = 0;
+        for (int i = 0; i < snapshot.getBuildingCount(); i++) {
+            BuildingSnapshot b = snapshot.getBuilding(i);
+            out.writeInt(strings.get(b.getType()));
+            out.writeInt(strings.get(b.getName()));
+            out.writeInt(b.getMaxWorkers());
+            out.writeInt(firstWorker);
+            out.writeInt(b.getWorkerCount());
+            firstWorker += b.getWorkerCount();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the worker table, referring to workers by their index in the village where they have one
+    private void writeWorkers(VillageSnapshot snapshot, Map<String, Integer> strings) throws IOException {
+        for (int i = 0; i < snapshot.getBuildingCount(); i++) {
+            BuildingSnapshot b = snapshot.getBuilding(i);
+            for (int w = 0; w < b.getWorkerCount(); w++) {
+                int index = b.getWorker(w);
+                out.writeInt(index);
+                if (index == -1) {
+                    out.writeInt(strings.get(b.getOutsiderName(w)) | (b.isOutsiderWorking(w) ? WORKING : 0));
+                } else {
+                    out.writeInt(0);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package persistence;
+
+import model.Village;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+// Represents the formats a village can be saved in, JSON (see JsonWriter), binary (see BinaryWriter)
+// or laid out to be memory-mapped (see MappedSnapshotWriter).
+// The format of a save file is told apart by its first bytes, so any save can be loaded with detect(...).read(...).
+public enum SaveFormat {
+    JSON {
+        @Override
+        public Village read(String source) throws IOException {
+            return new JsonReader(source).read();
+        }
+
+        @Override
+        public void write(Village village, String destination) throws IOException {
+            JsonWriter writer = new JsonWriter(destination);
+            writer.open();
+            try {
+                writer.write(village);
+            } finally {
+                writer.close();
+            }
+        }
+    },
+    BINARY {
+        @Override
+        public Village read(String source) throws IOException {
+            return new BinaryReader(source).read();
+        }
+
+        @Override
+        public void write(Village village, String destination) throws IOException {
+            BinaryWriter writer = new BinaryWriter(destination);
+            writer.open();
+            try {
+                writer.write(village);
+            } finally {
+                writer.close();
+            }
+        }
+    },
+    MAPPED {
+        @Override
+        public Village read(String source) throws IOException {
+            try (MappedSnapshot snapshot = MappedSnapshot.open(source)) {
+                return snapshot.toVillage();
+            }
+        }
+
+        @Override
+        public void write(Village village, String destination) throws IOException {
+            MappedSnapshotWriter writer = new MappedSnapshotWriter(destination);
+            writer.open();
+            try {
+                writer.write(village);
+            } finally {
+                writer.close();
+            }
+        }
+    };
+
+    // EFFECTS: reads village from source file in this format and returns it;
+    // throws IOException if an error occurs reading data from file
+    public abstract Village read(String source) throws IOException;
+
+    // EFFECTS: writes village to destination file in this format;
+    // throws IOException if destination file cannot be written
+    public abstract void write(Village village, String destination) throws IOException;
+
+    // EFFECTS: returns the format of source file, BINARY or MAPPED if it starts with the header of one of them,
+    // otherwise JSON; throws IOException if source file cannot be read
+    public static SaveFormat detect(String source) throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(source))) {
+            int magic = in.readInt();
+            if (magic == BinaryWriter.MAGIC) {
+                return BINARY;
+            }
+            return magic == MappedSnapshotWriter.MAGIC ? MAPPED : JSON;
+        } catch (EOFException e) {
+            return JSON;
+        }
+    }
+
+    // EFFECTS: reads village from source file in whichever format it was saved in and returns it;
+    // throws IOException if an error occurs reading data from file
+    public static Village load(String source) throws IOException {
+        return detect(source).read(source);
+    }
+}
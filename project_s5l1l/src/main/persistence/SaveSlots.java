@@ -0,0 +1,197 @@
+package persistence;
+
+import model.Village;
+import model.VillageSnapshot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+// Represents a catalog of named save slots kept in one directory, one NAME.slot file per slot.
+// A slot file starts with a fixed size header, so listing the slots only reads HEADER_SIZE bytes of each file
+// however large the villages in them are. The header is:
+//     int     MAGIC
+//     byte    VERSION
+//     int     turn, population, totalFood, totalWood, totalStone
+//     long    timestamp, milliseconds since the epoch
+//     long    length of the saved village
+//     int     CRC32 of the saved village
+// and is followed by the village in the binary save format (see BinaryWriter).
+public class SaveSlots {
+    static final int MAGIC = 0x5653534C;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 4 + 1 + 5 * 4 + 8 + 8 + 4;
+    private static final String EXTENSION = ".slot";
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9 _-]{1,64}");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+
+    // EFFECTS: constructs a catalog of the slots in directory, which is made when the first slot is saved
+    public SaveSlots(String directory) {
+        this.directory = Paths.get(directory);
+    }
+
+    // EFFECTS: returns true if name can be used as the name of a slot: 1 to 64 letters, digits, spaces, - or _
+    public static boolean isValidName(String name) {
+        return name != null && NAME.matcher(name).matches();
+    }
+
+    // REQUIRES: isValidName(name)
+    // MODIFIES: this
+    // EFFECTS: saves village to slot name, replacing the slot if there is one, and returns its header;
+    // throws IOException if the slot cannot be written, the slot is left as it was
+    public SlotHeader save(String name, Village village) throws IOException {
+        VillageSnapshot snapshot = village.snapshot();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, name, ".tmp");
+        try {
+            SlotHeader header = write(name, snapshot, temp);
+            try {
+                Files.move(temp, fileOf(name), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, fileOf(name), StandardCopyOption.REPLACE_EXISTING);
+            }
+            return header;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // EFFECTS: reads the village in slot name and returns it, reading the file once: the checksum is worked out
+    // while the village is parsed and checked before the village is returned or a parsing error is passed on;
+    // throws IOException if there is no such slot or its checksum does not match the saved village
+    public Village load(String name) throws IOException {
+        Path file = fileOf(name);
+        try (FileChannel channel = FileChannel.open(file)) {
+            SlotHeader header = readHeader(name, channel);
+            CRC32 crc = new CRC32();
+            InputStream in = body(channel, crc);
+            Village village;
+            try {
+                village = new BinaryReader(file.toString()).read(in);
+            } catch (IOException | RuntimeException e) {
+                checkBody(file, header, channel.size(), in, crc);
+                throw e;
+            }
+            checkBody(file, header, channel.size(), in, crc);
+            return village;
+        }
+    }
+
+    // EFFECTS: returns the header of every slot, the most recently saved first, reading only the headers;
+    // files that are not slots are left out; throws IOException if the directory cannot be read
+    public List<SlotHeader> list() throws IOException {
+        List<SlotHeader> headers = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return headers;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                String name = fileName.substring(0, fileName.length() - EXTENSION.length());
+                try (FileChannel channel = FileChannel.open(file)) {
+                    headers.add(readHeader(name, channel));
+                } catch (IOException e) {
+                    continue;
+                }
+            }
+        }
+        headers.sort(Comparator.comparingLong(SlotHeader::getTimestamp).reversed());
+        return headers;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: deletes slot name, returns false if there was no such slot; throws IOException if it cannot be deleted
+    public boolean delete(String name) throws IOException {
+        return Files.deleteIfExists(fileOf(name));
+    }
+
+    // EFFECTS: returns the file of slot name
+    private Path fileOf(String name) {
+        return directory.resolve(name + EXTENSION);
+    }
+
+    // EFFECTS: writes snapshot to file after a header describing it and returns the header
+    private SlotHeader write(String name, VillageSnapshot snapshot, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            CRC32 crc = new CRC32();
+            channel.position(HEADER_SIZE);
+            BinaryWriter writer = new BinaryWriter(new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE), crc));
+            writer.write(snapshot);
+            writer.flush();
+            int[] totals = {snapshot.getTotalFood(), snapshot.getTotalWood(), snapshot.getTotalStone()};
+            SlotHeader header = new SlotHeader(name, snapshot.getTurn(), snapshot.getCitizenCount(), totals,
+                    System.currentTimeMillis(), channel.size() - HEADER_SIZE, (int) crc.getValue());
+            channel.write(encode(header), 0);
+            return header;
+        }
+    }
+
+    // EFFECTS: returns header in the slot header layout
+    private ByteBuffer encode(SlotHeader header) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+        buffer.putInt(MAGIC).put((byte) VERSION);
+        buffer.putInt(header.getTurn()).putInt(header.getPopulation());
+        buffer.putInt(header.getTotalFood()).putInt(header.getTotalWood()).putInt(header.getTotalStone());
+        buffer.putLong(header.getTimestamp()).putLong(header.getLength()).putInt(header.getChecksum());
+        buffer.flip();
+        return buffer;
+    }
+
+    // EFFECTS: reads the header of slot name from the start of channel;
+    // throws IOException if channel does not start with a slot header of a known version
+    private SlotHeader readHeader(String name, FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) != -1) {
+            continue;
+        }
+        buffer.flip();
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+            throw new IOException(name + " is not a save slot");
+        }
+        int turn = buffer.getInt();
+        int population = buffer.getInt();
+        int[] totals = {buffer.getInt(), buffer.getInt(), buffer.getInt()};
+        return new SlotHeader(name, turn, population, totals, buffer.getLong(), buffer.getLong(), buffer.getInt());
+    }
+
+    // EFFECTS: reads what is left of in, which updates crc, and throws IOException if the saved village in a file of
+    // size bytes does not have the length and checksum in header
+    private static void checkBody(Path file, SlotHeader header, long size, InputStream in, CRC32 crc)
+            throws IOException {
+        byte[] rest = new byte[BUFFER_SIZE];
+        while (in.read(rest) != -1) {
+            continue;
+        }
+        if (size - HEADER_SIZE != header.getLength() || (int) crc.getValue() != header.getChecksum()) {
+            throw new IOException(file + " is damaged, its checksum does not match");
+        }
+    }
+
+    // EFFECTS: returns a buffered stream over the saved village in channel that updates crc with what it reads,
+    // the stream is closed with channel
+    private InputStream body(FileChannel channel, CRC32 crc) throws IOException {
+        channel.position(HEADER_SIZE);
+        return new CheckedInputStream(new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE), crc);
+    }
+}
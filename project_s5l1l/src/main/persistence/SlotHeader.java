@@ -0,0 +1,76 @@
+package persistence;
+
+import java.util.Date;
+
+// Represents the header of a save slot: what a load menu shows about a save without reading the village itself,
+// and the length and CRC32 checksum of the saved village that follows it in the slot file (see SaveSlots).
+public class SlotHeader {
+    private final String name;
+    private final int turn;
+    private final int population;
+    private final int totalFood;
+    private final int totalWood;
+    private final int totalStone;
+    private final long timestamp;
+    private final long length;
+    private final int checksum;
+
+    // EFFECTS: constructs the header of slot name with the given totals, saved at timestamp in milliseconds
+    // since the epoch, followed by length bytes of saved village with CRC32 checksum
+    SlotHeader(String name, int turn, int population, int[] totals, long timestamp, long length, int checksum) {
+        this.name = name;
+        this.turn = turn;
+        this.population = population;
+        this.totalFood = totals[0];
+        this.totalWood = totals[1];
+        this.totalStone = totals[2];
+        this.timestamp = timestamp;
+        this.length = length;
+        this.checksum = checksum;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getTurn() {
+        return turn;
+    }
+
+    public int getPopulation() {
+        return population;
+    }
+
+    public int getTotalFood() {
+        return totalFood;
+    }
+
+    public int getTotalWood() {
+        return totalWood;
+    }
+
+    public int getTotalStone() {
+        return totalStone;
+    }
+
+    // EFFECTS: returns when the slot was saved, in milliseconds since the epoch
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    // EFFECTS: returns the length in bytes of the saved village that follows the header
+    public long getLength() {
+        return length;
+    }
+
+    public int getChecksum() {
+        return checksum;
+    }
+
+    // EFFECTS: returns a one line description of the slot for a load menu
+    @Override
+    public String toString() {
+        return name + " - turn " + turn + ", " + population + " citizens, food " + totalFood + ", wood " + totalWood
+                + ", stone " + totalStone + ", saved " + new Date(timestamp);
+    }
+}
@@ -0,0 +1,9 @@
+package persistence;
+
+import java.io.IOException;
+
+// Something that can write itself as JSON token by token (see JsonOutput), without building a JSONObject first
+public interface StreamWritable {
+    // EFFECTS: writes this as a JSON value to out; throws IOException if it cannot be written
+    void writeJson(JsonOutput out) throws IOException;
+}
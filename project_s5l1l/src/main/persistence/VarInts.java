@@ -0,0 +1,52 @@
+package persistence;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+// Reads and writes ints in 7-bit groups, low group first, with the top bit of each byte set when more follow,
+// so small numbers take a single byte. Signed numbers are zig-zag encoded first so small negative numbers
+// stay small too. Shared by the binary formats of the persistence package.
+final class VarInts {
+
+    private VarInts() {
+    }
+
+    // MODIFIES: out
+    // EFFECTS: writes value, which must not be negative
+    static void writeUnsigned(DataOutput out, int value) throws IOException {
+        int bits = value;
+        while ((bits & ~0x7F) != 0) {
+            out.writeByte((bits & 0x7F) | 0x80);
+            bits >>>= 7;
+        }
+        out.writeByte(bits);
+    }
+
+    // MODIFIES: out
+    // EFFECTS: writes value zig-zag encoded
+    static void writeSigned(DataOutput out, int value) throws IOException {
+        writeUnsigned(out, (value << 1) ^ (value >> 31));
+    }
+
+    // MODIFIES: in
+    // EFFECTS: reads a number written by writeUnsigned
+    static int readUnsigned(DataInput in) throws IOException {
+        int bits = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            bits |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return bits;
+    }
+
+    // MODIFIES: in
+    // EFFECTS: reads a number written by writeSigned
+    static int readSigned(DataInput in) throws IOException {
+        int bits = readUnsigned(in);
+        return (bits >>> 1) ^ -(bits & 1);
+    }
+}
@@ -0,0 +1,149 @@
+package persistence;
+
+import model.Village;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+// Represents a saved game made of a snapshot of the village and a journal of every command applied since.
+// Snapshots are written in the store's SaveFormat, and read in whichever format the snapshot file is in.
+// Saving writes a new snapshot and starts an empty journal, after that every action appends a command to the file
+// as it is applied, so the saved game always holds the latest state of the village being recorded.
+// Loading reads the snapshot and replays the journal onto it, so nothing done since the last save is lost,
+// whether the game was closed or crashed.
+// With a compaction ratio set, saving the village already being recorded writes nothing new, since the
+// commands in the journal are exactly what changed since the snapshot. A new snapshot is written once the journal grows
+// past the ratio times the size of the snapshot, so saves cost in proportion to what changed and loading never
+// replays much more than it reads.
+// A new snapshot is written to a temporary file and renamed over the old one, so a crash leaves one whole snapshot.
+// The journal names the length and checksum of the snapshot it was started from and is only replayed onto that
+// snapshot: if the game stops after a new snapshot is in place but before its journal is started, the old journal's
+// commands, already in the new snapshot, are not applied twice.
+public class VillageStore {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String snapshot;
+    private final String journal;
+    private final SaveFormat format;
+    private CommandJournal writer;
+    private Village recorded;
+    private double compactionRatio;
+    private long snapshotSize;
+    private int snapshotCrc;
+
+    // EFFECTS: constructs a store that keeps a JSON snapshot in the snapshot file and its commands in the journal file
+    public VillageStore(String snapshot, String journal) {
+        this(snapshot, journal, SaveFormat.JSON);
+    }
+
+    // EFFECTS: constructs a store that keeps a snapshot in format in the snapshot file
+    // and its commands in the journal file
+    public VillageStore(String snapshot, String journal, SaveFormat format) {
+        this.snapshot = snapshot;
+        this.journal = journal;
+        this.format = format;
+    }
+
+    // REQUIRES: ratio >= 0
+    // MODIFIES: this
+    // EFFECTS: sets how large the journal may grow, relative to the snapshot, before saving writes a new snapshot;
+    // 0 writes a new snapshot on every save
+    public void setCompactionRatio(double ratio) {
+        this.compactionRatio = ratio;
+    }
+
+    // MODIFIES: this, village
+    // EFFECTS: saves village, returns true if a new snapshot was written and the journal emptied, false if village
+    // is already recorded by the journal; throws IOException if either file cannot be written
+    public boolean save(Village village) throws IOException {
+        if (village == recorded && writer.size() <= compactionRatio * snapshotSize) {
+            writer.flush();
+            return false;
+        }
+        compact(village);
+        return true;
+    }
+
+    // MODIFIES: this, village
+    // EFFECTS: writes a snapshot of village, starts an empty journal and records the commands applied to village
+    // in it from now on; throws IOException if either file cannot be written
+    public void compact(Village village) throws IOException {
+        Path target = Paths.get(snapshot).toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            format.write(village, temp.toString());
+            long size = Files.size(temp);
+            int crc = checksum(temp);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            snapshotSize = size;
+            snapshotCrc = crc;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        record(village, false);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the snapshot, replays the journal onto it if there is one started from this snapshot and returns
+    // the village, commands applied to it from now on are added to the journal, which is started anew if it belonged
+    // to another snapshot; throws IOException if an error occurs reading data from either file
+    public Village load() throws IOException {
+        close();
+        Village village = SaveFormat.load(snapshot);
+        Path file = Paths.get(snapshot);
+        snapshotSize = Files.size(file);
+        snapshotCrc = checksum(file);
+        boolean belongs = new File(journal).exists()
+                && new CommandJournalReader(journal).startsFrom(snapshotSize, snapshotCrc);
+        if (belongs) {
+            new CommandJournalReader(journal).replay(village);
+        }
+        record(village, belongs);
+        return village;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops recording and closes the journal, if one is open
+    public void close() throws IOException {
+        if (writer != null) {
+            recorded.setCommandListener(null);
+            writer.close();
+            writer = null;
+            recorded = null;
+        }
+    }
+
+    // EFFECTS: returns the CRC32 of the contents of file; throws IOException if it cannot be read
+    private static int checksum(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(file)) {
+            for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return (int) crc.getValue();
+    }
+
+    // MODIFIES: this, village
+    // EFFECTS: closes the open journal and records the commands applied to village in the journal from now on,
+    // keeping the commands already in it if append is true and otherwise starting it from the current snapshot
+    private void record(Village village, boolean append) throws IOException {
+        close();
+        writer = new CommandJournal(journal);
+        writer.open(append, snapshotSize, snapshotCrc);
+        village.setCommandListener(writer);
+        recorded = village;
+    }
+}
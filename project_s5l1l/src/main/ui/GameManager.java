@@ -2,10 +2,11 @@ package ui;
 
 
 import model.*;
-import persistence.JsonReader;
-import persistence.JsonWriter;
+import persistence.SaveFormat;
+import persistence.SaveSlots;
+import persistence.SlotHeader;
+import persistence.VillageStore;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.Iterator;
 import java.util.List;
@@ -15,8 +16,12 @@ import java.util.Scanner;
 // the GameManager object takes a village and a max number of turns,
 // it initializes the game and starts the game loop, it checks for end conditions and ends the game when neccessary.
 public class GameManager {
+    private static final double COMPACTION_RATIO = 1.0;
 
     private final Scanner input;
+    private final VillageStore store = new VillageStore("./data/savedGame.sav", "./data/savedGame.journal",
+            SaveFormat.BINARY);
+    private final SaveSlots slots = new SaveSlots("./data/slots");
     private Village village;
     private boolean gameOver;
 
@@ -26,6 +31,7 @@ public class GameManager {
     public GameManager(Village village) {
         this.village = village;
         this.gameOver = false;
+        store.setCompactionRatio(COMPACTION_RATIO);
         input = new Scanner(System.in);
         startGame();
     }
@@ -97,11 +103,12 @@ public class GameManager {
         System.out.println("1. Exit Game");
         System.out.println("2. Save Game");
         System.out.println("3. Load Game");
+        System.out.println("4. Save Game to Slot");
+        System.out.println("5. Load Game from Slot");
         saveMenuUserInput();
     }
 
     public boolean saveMenuUserInput() {
-
         String choice = input.nextLine();
         System.out.println();
         switch (choice) {
@@ -116,6 +123,12 @@ public class GameManager {
                 loadGame();
                 System.out.println("Game loaded successfully.");
                 return false;
+            case "4":
+                saveToSlot();
+                return false;
+            case "5":
+                loadFromSlot();
+                return false;
             default:
                 System.out.println("Oops... Invalid choice. Try again.\n");
                 displaySaveMenu();
@@ -124,28 +137,67 @@ public class GameManager {
     }
 
     //Modifies: this, village
-    //Effect: opens a reader and read data from the saveGame.json file, loads game state.
+    //Effect: loads the game state from the savedGame.sav snapshot and replays the actions journaled since.
     private void loadGame() {
         try {
-            JsonReader reader = new JsonReader("./data/savedGame.json");
-            village = reader.read();
+            village = store.load();
             //System.out.println("Game was successfully loaded!");
         } catch (IOException e) {
             System.out.println(e.getMessage());
         }
     }
 
-    //Effect: opens a writer and saves village data to a .json file
+    //Effect: saves the village, the actions journaled since the last snapshot are kept until the journal
+    //        outgrows the snapshot, then a new binary .sav snapshot is written and actions are journaled next to it.
     private void saveGame() {
         try {
-            JsonWriter writer = new JsonWriter("./data/savedGame.json");
-            writer.open();
-            writer.write(village);
-            writer.close();
-        } catch (FileNotFoundException e) {
+            store.save(village);
+        } catch (IOException e) {
+            System.out.println("Unable to save game: " + e.getMessage());
+        }
+
+    }
+
+    //Effect: asks the user for a slot name and saves the village to that slot, replacing any save already in it.
+    private void saveToSlot() {
+        System.out.print("Slot name (letters, digits, spaces, - or _): ");
+        String name = input.nextLine();
+        if (!SaveSlots.isValidName(name)) {
+            System.out.println("Invalid slot name.");
+            return;
+        }
+        try {
+            slots.save(name, village);
+            System.out.println("Game saved to slot " + name + ".");
+        } catch (IOException e) {
             System.out.println("Unable to save game: " + e.getMessage());
         }
+    }
 
+    //Modifies: this, village
+    //Effect: lists the save slots from their headers, loads the one the user picks,
+    //        actions are no longer journaled until the game is saved again.
+    private void loadFromSlot() {
+        try {
+            List<SlotHeader> headers = slots.list();
+            if (headers.isEmpty()) {
+                System.out.println("There are no saved slots.");
+                return;
+            }
+            for (int i = 0; i < headers.size(); i++) {
+                System.out.println((i + 1) + ". " + headers.get(i));
+            }
+            int choice = getIndex();
+            if (choice < 0 || choice >= headers.size()) {
+                System.out.println("Invalid selection.");
+                return;
+            }
+            village = slots.load(headers.get(choice).getName());
+            store.close();
+            System.out.println("Game loaded from slot " + headers.get(choice).getName() + ".");
+        } catch (IOException e) {
+            System.out.println("Unable to load game: " + e.getMessage());
+        }
     }
 
     //MODIFIES: this, village
@@ -259,7 +311,7 @@ public class GameManager {
         if (citizenIndex >= 0 & citizenIndex < village.getCitizens().size()) {
             Citizen renamed = village.getCitizens().get(citizenIndex);
             System.out.println(renamed.getName() + " was renamed to " + name);
-            renamed.setName(name);
+            village.renameCitizen(citizenIndex, name);
         } else if (citizenIndex == -1) {
             System.out.println("Operation cancelled.");
         } else {
@@ -329,6 +381,9 @@ public class GameManager {
     //Effects: Prints Events to console on application exit.
     private void printEventLogAndExit() {
         System.out.println("Event Log:");
+        if (EventLog.getInstance().getDroppedCount() > 0) {
+            System.out.println("(" + EventLog.getInstance().getDroppedCount() + " older events were dropped)");
+        }
         for (Iterator<Event> it = EventLog.getInstance().iterator(); it.hasNext(); ) {
             Event event = it.next();
             System.out.println(event.getDescription());
@@ -370,7 +425,7 @@ public class GameManager {
             name = input.nextLine();
         }
         System.out.println(building.getName() + " was renamed to: " + name);
-        building.setName(name);
+        village.renameBuilding(village.getBuildings().indexOf(building), name);
     }
 
     //REQUIRES: building is !null
@@ -378,9 +433,8 @@ public class GameManager {
     //EFFECTS: removes a worker for list of workers, updates isWorking status
     private void fireWorker(Building building) {
         if (building.getNumWorkers() != 0) {
-            Citizen c = building.removeWorker();
+            Citizen c = village.fire(building);
             System.out.println(c.getName() + " has been fired from the " + building.getType() + ".\n");
-            village.getUnemployed().add(c);
         } else {
             System.out.println("\nThis building has no employees. Maybe hire someone just to fire them?\n");
         }
@@ -408,10 +462,12 @@ public class GameManager {
         int choice = getIndex();
         if (choice >= 0 & choice < unemployed.size()) {
             Citizen c = unemployed.get(choice);
-            building.addWorker(c);
-            c.setWorking(true);
-            village.getUnemployed().remove(c);
-            System.out.println(c.getName() + " has been assigned to " + building.getType() + ". No more slacking off!");
+            if (village.hire(c, building)) {
+                System.out.println(c.getName() + " has been assigned to " + building.getType()
+                        + ". No more slacking off!");
+            } else {
+                System.out.println("\n" + building.getName() + " is full. Fire someone first.");
+            }
         } else {
             System.out.println("\nInvalid selection. Please try again.");
             hireWorker(building);
@@ -436,9 +492,9 @@ public class GameManager {
     //          calls input handler with user choice and name.
     private void addBuilding() {
         System.out.println("\nSelect the type of building to add:");
-        System.out.println("1. Farm (4 Wood, 1 Stone)");
-        System.out.println("2. Mine (6 Wood, 3 Stone)");
-        System.out.println("3. Lumber Mill (3 Wood, 2 Stone)");
+        printBuildingOption(1, BuildingType.FARM);
+        printBuildingOption(2, BuildingType.MINE);
+        printBuildingOption(3, BuildingType.LUMBER_MILL);
         System.out.println("4. Return to Main Menu");
         System.out.print("Choose a building type: ");
         String choice = input.nextLine();
@@ -447,6 +503,12 @@ public class GameManager {
         addBuildingUserInput(choice, name);
     }
 
+    //EFFECTS: prints a building menu option with the catalog costs of type
+    private void printBuildingOption(int number, BuildingType type) {
+        System.out.println(number + ". " + type.getLabel() + " (" + type.getWoodCost() + " Wood, "
+                + type.getStoneCost() + " Stone)");
+    }
+
     //MODIFIES: village
     //EFFECTS: handles user input for addBuilding menu,
     //         builds specified type, with name, updates resources.
@@ -454,13 +516,13 @@ public class GameManager {
         boolean built = false;
         switch (choice) {
             case "1":
-                built = village.build("Farm", name, 4, 1);
+                built = village.build(BuildingType.FARM, name);
                 break;
             case "2":
-                built = village.build("Mine", name, 6, 3);
+                built = village.build(BuildingType.MINE, name);
                 break;
             case "3":
-                built = village.build("Lumber Mill", name, 3, 2);
+                built = village.build(BuildingType.LUMBER_MILL, name);
                 break;
             case "4":
                 break;
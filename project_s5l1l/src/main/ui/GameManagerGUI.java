@@ -2,8 +2,11 @@ package ui;
 
 import model.Event;
 import model.*;
-import persistence.JsonReader;
-import persistence.JsonWriter;
+import persistence.AutosaveService;
+import persistence.SaveFormat;
+import persistence.SaveSlots;
+import persistence.SlotHeader;
+import persistence.VillageStore;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -11,7 +14,6 @@ import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.List;
 
@@ -22,22 +24,30 @@ import java.util.List;
  * resources and of Citizens. It also allows the user to load/save the game.
  */
 public class GameManagerGUI extends JFrame {
+    private static final String AUTOSAVE = "./data/autosave.sav";
+    private static final int AUTOSAVE_TURNS = 5;
+    private static final double COMPACTION_RATIO = 1.0;
     private final JLabel numCitizensLabel;
     private final JLabel numWoodLabel;
     private final JLabel numStoneLabel;
     private final JLabel numFoodLabel;
     private final JLabel numBuildingsLabel;
     private JFrame frame;
+    private final VillageStore store = new VillageStore("./data/savedGame.sav", "./data/savedGame.journal",
+            SaveFormat.BINARY);
+    private final AutosaveService autosave = new AutosaveService(AUTOSAVE, AUTOSAVE_TURNS);
+    private final SaveSlots slots = new SaveSlots("./data/slots");
     private Village village;
-    private JList<String> citizensList;
-    private JList<String> buildingsList;
-    private DefaultListModel<String> citizensListModel;
-    private DefaultListModel<String> buildingsListModel;
+    private JList<Citizen> citizensList;
+    private JList<Building> buildingsList;
+    private VillageListModel<Citizen> citizensListModel;
+    private VillageListModel<Building> buildingsListModel;
 
     //Requires: village !null
     //Effects: initialises and displays the main game window
     public GameManagerGUI(Village village) {
         this.village = village;
+        store.setCompactionRatio(COMPACTION_RATIO);
         numCitizensLabel = new JLabel(String.valueOf(village.getCitizens().size()));
         numBuildingsLabel = new JLabel(String.valueOf(village.getBuildings().size()));
         numFoodLabel = new JLabel(String.valueOf(village.getTotalFood()));
@@ -67,6 +77,9 @@ public class GameManagerGUI extends JFrame {
     //Effects: Prints Events to console on application exit.
     private void printEventLogAndExit() {
         System.out.println("Event Log:");
+        if (EventLog.getInstance().getDroppedCount() > 0) {
+            System.out.println("(" + EventLog.getInstance().getDroppedCount() + " older events were dropped)");
+        }
         for (Event event : EventLog.getInstance()) {
             System.out.println(event.getDescription());
         }
@@ -91,7 +104,8 @@ public class GameManagerGUI extends JFrame {
     //REQUIRES: village !null && frame !null
     //MODIFIES: this.frame
     //EFFECTS: makes a split pane panel and displays a list of citizens by name and employment status, displays a list
-    //of buildings by type, name and num workers
+    //of buildings by type, name and num workers. The lists read their rows from village as they are drawn and every
+    //row has the size of the prototype row, so only the rows on screen are ever formatted.
     private void initDisplayList() {
         JPanel displayPanel = new JPanel(new BorderLayout());
 
@@ -106,11 +120,7 @@ public class GameManagerGUI extends JFrame {
         buildingPanel.add(buildingLabel, BorderLayout.NORTH);
 
 
-        citizensListModel = new DefaultListModel<>();
-        buildingsListModel = new DefaultListModel<>();
-
-        citizensList = new JList(citizensListModel);
-        buildingsList = new JList(buildingsListModel);
+        initLists();
 
         citizenPanel.add(new JScrollPane(citizensList));
         citizenPanel.setBorder(new EmptyBorder(0, 5, 0, 0));
@@ -122,33 +132,27 @@ public class GameManagerGUI extends JFrame {
 
         displayPanel.add(splitPane, BorderLayout.CENTER);
         frame.add(displayPanel, BorderLayout.CENTER);
-
-        updateCitizensList();
-        updateBuildingsList();
     }
 
-    //REQUIRES: village.buildings !null && frame !null
     //MODIFIES: this
-    //EFFECTS: updates the list of buildings
-    private void updateBuildingsList() {
-        buildingsListModel.clear();
-
-        for (Building b : village.getBuildings()) {
-            String text = String.format("Type: %s, Name: %s, Number of Workers: %d",
-                    b.getType(), b.getName(), b.getNumWorkers());
-            buildingsListModel.addElement(text);
-        }
+    //EFFECTS: makes the citizen and building lists, backed by village and drawn by a VillageCellRenderer
+    private void initLists() {
+        citizensListModel = new VillageListModel<>(village, Village::getCitizens);
+        buildingsListModel = new VillageListModel<>(village, Village::getBuildings);
+
+        citizensList = new JList<>(citizensListModel);
+        buildingsList = new JList<>(buildingsListModel);
+        citizensList.setCellRenderer(new VillageCellRenderer());
+        buildingsList.setCellRenderer(new VillageCellRenderer());
+        citizensList.setPrototypeCellValue(new Citizen("A citizen with a long name", false));
+        buildingsList.setPrototypeCellValue(new Building(BuildingType.LUMBER_MILL, "A building with a long name"));
     }
 
-    //REQUIRES: village.citizens !null && frame !null
     //MODIFIES: this
-    //EFFECTS: updates the list of citizens
-    private void updateCitizensList() {
-        citizensListModel.clear();
-        for (Citizen c : village.getCitizens()) {
-            String text = String.format("Name: %s, Employment Status: %s", c.getName(), c.isWorking());
-            citizensListModel.addElement(text);
-        }
+    //EFFECTS: shows the citizens and buildings of village in the lists, after another village has been loaded
+    private void showVillage() {
+        citizensListModel.setVillage(village);
+        buildingsListModel.setVillage(village);
     }
 
 
@@ -175,6 +179,18 @@ public class GameManagerGUI extends JFrame {
         JMenuItem saveItem = new JMenuItem("Save game");
         saveItem.addActionListener(this::saveGameAction);
         persistenceMenu.add(saveItem);
+
+        JMenuItem autosaveItem = new JMenuItem("Load autosave");
+        autosaveItem.addActionListener(this::loadAutosaveAction);
+        persistenceMenu.add(autosaveItem);
+
+        JMenuItem saveSlotItem = new JMenuItem("Save to slot...");
+        saveSlotItem.addActionListener(this::saveToSlotAction);
+        persistenceMenu.add(saveSlotItem);
+
+        JMenuItem loadSlotItem = new JMenuItem("Load from slot...");
+        loadSlotItem.addActionListener(this::loadFromSlotAction);
+        persistenceMenu.add(loadSlotItem);
     }
 
     //MODIFIES: this.frame
@@ -196,14 +212,79 @@ public class GameManagerGUI extends JFrame {
                 "Load Saved Game?", "Load Game", JOptionPane.YES_NO_OPTION);
         if (confirm == JOptionPane.YES_NO_OPTION) {
             loadGame();
-            updateBuildingsList();
-            updateCitizensList();
+            showVillage();
         }
     }
 
     //REQUIRES: ActionEvent triggered by user
-    //MODIFIES: savedGame.json
-    //EFFECTS: saves game data to savedGame.json
+    //MODIFIES: village
+    //EFFECTS: loads game data from the last autosave
+    private void loadAutosaveAction(ActionEvent e) {
+        int confirm = JOptionPane.showConfirmDialog(frame,
+                "Load Autosave?", "Load Game", JOptionPane.YES_NO_OPTION);
+        if (confirm == JOptionPane.YES_NO_OPTION) {
+            loadAutosave();
+            showVillage();
+        }
+    }
+
+    //REQUIRES: ActionEvent triggered by user
+    //MODIFIES: data/slots
+    //EFFECTS: asks for a slot name and saves game data to that slot
+    private void saveToSlotAction(ActionEvent e) {
+        String name = JOptionPane.showInputDialog(frame, "Slot name (letters, digits, spaces, - or _):",
+                "Save to Slot", JOptionPane.QUESTION_MESSAGE);
+        if (name == null) {
+            return;
+        }
+        if (!SaveSlots.isValidName(name)) {
+            JOptionPane.showMessageDialog(frame, "Invalid slot name.", "Save to Slot", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        try {
+            slots.save(name, village);
+            JOptionPane.showMessageDialog(frame, "Game Saved!", "Save to Slot", JOptionPane.INFORMATION_MESSAGE);
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(frame,
+                    "Save game failed:" + ex.getMessage(), "Save to Slot", JOptionPane.INFORMATION_MESSAGE);
+        }
+    }
+
+    //REQUIRES: ActionEvent triggered by user
+    //MODIFIES: this, village
+    //EFFECTS: lists the save slots from their headers and loads the one the user picks
+    private void loadFromSlotAction(ActionEvent e) {
+        try {
+            Object[] headers = slots.list().toArray();
+            if (headers.length == 0) {
+                JOptionPane.showMessageDialog(frame, "There are no saved slots.", "Load from Slot",
+                        JOptionPane.INFORMATION_MESSAGE);
+                return;
+            }
+            Object choice = JOptionPane.showInputDialog(frame, "Choose a slot:", "Load from Slot",
+                    JOptionPane.QUESTION_MESSAGE, null, headers, headers[0]);
+            if (choice != null) {
+                loadSlot((SlotHeader) choice);
+            }
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(frame,
+                    "Load game failed:" + ex.getMessage(), "Load from Slot", JOptionPane.INFORMATION_MESSAGE);
+        }
+    }
+
+    //MODIFIES: this, village
+    //EFFECTS: loads game data from the slot of header and stops recording to the saved game's journal
+    //         until the game is saved again
+    private void loadSlot(SlotHeader header) throws IOException {
+        village = slots.load(header.getName());
+        store.close();
+        showVillage();
+        updateStatusPanel();
+    }
+
+    //REQUIRES: ActionEvent triggered by user
+    //MODIFIES: savedGame.sav
+    //EFFECTS: saves game data to savedGame.sav
     private void saveGameAction(ActionEvent e) {
         saveGame();
         JOptionPane.showMessageDialog(frame,
@@ -225,8 +306,7 @@ public class GameManagerGUI extends JFrame {
     //EFFECTS: if file is successfully read, loads game data to village, else an error message is shown
     private void loadGame() {
         try {
-            JsonReader reader = new JsonReader("./data/savedGame.json");
-            village = reader.read();
+            village = store.load();
             JOptionPane.showMessageDialog(frame,
                     "Game loaded!", "Load Game", JOptionPane.INFORMATION_MESSAGE);
         } catch (IOException e) {
@@ -235,14 +315,27 @@ public class GameManagerGUI extends JFrame {
         }
     }
 
-    //EFFECTS: if file exsists saves game data to savedGame.json else shows error message
+    //MODIFIES: this, village
+    //EFFECTS: if the autosave is successfully read, loads it to village and stops recording to the saved game's
+    //         journal until the game is saved again, else an error message is shown
+    private void loadAutosave() {
+        try {
+            autosave.flush();
+            village = SaveFormat.load(AUTOSAVE);
+            store.close();
+            JOptionPane.showMessageDialog(frame,
+                    "Autosave loaded!", "Load Game", JOptionPane.INFORMATION_MESSAGE);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(frame,
+                    "Load autosave failed:" + e.getMessage(), "Load Game", JOptionPane.INFORMATION_MESSAGE);
+        }
+    }
+
+    //EFFECTS: if file exsists saves game data to savedGame.sav else shows error message
     private void saveGame() {
         try {
-            JsonWriter writer = new JsonWriter("./data/savedGame.json");
-            writer.open();
-            writer.write(village);
-            writer.close();
-        } catch (FileNotFoundException e) {
+            store.save(village);
+        } catch (IOException e) {
             JOptionPane.showMessageDialog(frame,
                     "Save game failed:" + e.getMessage(), "Save Game", JOptionPane.INFORMATION_MESSAGE);
 
@@ -324,8 +417,8 @@ public class GameManagerGUI extends JFrame {
                     String.format("Enter a new name for %s.", buildingToRename.getName()),
                     "Rename Building", JOptionPane.QUESTION_MESSAGE);
             if (name != null && !name.trim().isEmpty()) {
-                buildingToRename.setName(name.trim());
-                updateBuildingsList();
+                village.renameBuilding(selectedIndex, name.trim());
+                buildingsListModel.rowChanged(selectedIndex);
             }
         } else {
             JOptionPane.showMessageDialog(frame, "Select a building to rename.",
@@ -355,15 +448,19 @@ public class GameManagerGUI extends JFrame {
             return;
         }
         Citizen newHire = village.getCitizens().get(selectedCitizenIndex);
-        selectedBuilding.addWorker(newHire);
-        newHire.setWorking(true);
+        if (!village.hire(newHire, selectedBuilding)) {
+            JOptionPane.showMessageDialog(frame, "This citizen already has a job or the building is full.",
+                    "Citizen Not Hired",
+                    JOptionPane.WARNING_MESSAGE);
+            return;
+        }
 
         JOptionPane.showMessageDialog(frame, "A citizen has been hired.",
                 "Citizen Hired",
                 JOptionPane.PLAIN_MESSAGE);
 
-        updateBuildingsList();
-        updateCitizensList();
+        buildingsListModel.rowChanged(selectedBuildingIndex);
+        citizensListModel.rowChanged(selectedCitizenIndex);
     }
 
     //REQUIRES: ActionEvent triggered by user/ building is selected from scroll panel
@@ -375,17 +472,21 @@ public class GameManagerGUI extends JFrame {
             JOptionPane.showMessageDialog(frame, "Select a building first.",
                     "No Building Selected",
                     JOptionPane.WARNING_MESSAGE);
+            return;
         }
         Building selectedBuilding = village.getBuildings().get(selectedBuildingIndex);
-        List<Citizen> workers = selectedBuilding.getWorkers();
-        if (workers.isEmpty()) {
+        if (selectedBuilding.getNumWorkers() == 0) {
             JOptionPane.showMessageDialog(frame, "There are no workers in this building",
                     "No Workforce",
                     JOptionPane.WARNING_MESSAGE);
             return;
         }
-        selectedBuilding.removeWorker();
-        updateBuildingsList();
+        // indexOf finds the fired citizen by its slot in the citizen table, so only their row is looked at
+        int firedIndex = village.getCitizens().indexOf(village.fire(selectedBuilding));
+        buildingsListModel.rowChanged(selectedBuildingIndex);
+        if (firedIndex != -1) {
+            citizensListModel.rowChanged(firedIndex);
+        }
         JOptionPane.showMessageDialog(frame, "A worker has been fired",
                 "Worker Fired",
                 JOptionPane.WARNING_MESSAGE);
@@ -395,22 +496,10 @@ public class GameManagerGUI extends JFrame {
     //MODIFIES: village
     //EFFECTS: opens a pop-up and asks the user to select the type of building and then the name of the building
     private void addBuildingPanel(ActionEvent actionEvent) {
-        String type = chooseType();
+        BuildingType type = chooseType();
         String name = JOptionPane.showInputDialog(frame, "Enter the name of the new building:");
         if (type != null && name != null && !name.trim().isEmpty()) {
-            boolean built = false;
-            switch (type) {
-                case "Farm":
-                    built = village.build(type, name, 4, 1);
-                    break;
-                case "Mine":
-                    built = village.build(type, name, 6, 3);
-                    break;
-                case "Lumber Mill":
-                    built = village.build(type, name, 3, 2);
-                    break;
-            }
-            if (built) {
+            if (village.build(type, name)) {
                 showBuildingImage(type);
             } else {
                 JOptionPane.showMessageDialog(frame, String.format("Not enough resources to build a %s.", type),
@@ -420,34 +509,37 @@ public class GameManagerGUI extends JFrame {
     }
 
     //Effect: makes a pop up window appear with the icon representing the image added
-    private void showBuildingImage(String type) {
-        String path = String.format("/ui/icons/%s.png", type.toLowerCase());
+    private void showBuildingImage(BuildingType type) {
+        String path = String.format("/ui/icons/%s.png", type.getLabel().toLowerCase());
         ImageIcon icon = new ImageIcon(getClass().getResource(path));
         JOptionPane.showMessageDialog(frame, null, "Building Added!",
                 JOptionPane.INFORMATION_MESSAGE, icon);
-        updateBuildingsList();
+        buildingsListModel.rowAdded(village.getBuildings().size() - 1);
         updateStatusPanel();
     }
 
     //EFFECTS: asks user to select the type of building and returns it/ helper method for addBuildingPanel()
-    private String chooseType() {
-        Object[] types = {"Farm", "Mine", "Lumber Mill"};
-        return (String) JOptionPane.showInputDialog(frame, "Choose a type of building to add:",
-                "Add Building", JOptionPane.PLAIN_MESSAGE, null, types, "Farm");
+    private BuildingType chooseType() {
+        BuildingType[] types = BuildingType.values();
+        return (BuildingType) JOptionPane.showInputDialog(frame, "Choose a type of building to add:",
+                "Add Building", JOptionPane.PLAIN_MESSAGE, null, types, BuildingType.FARM);
     }
 
     //REQUIRES: ActionEvent triggered by user
     //MODIFIES: this, village
     //EFFECTS: updates the state of the village and the list panels, represents a new day in the village
     private void endTurnPanel(ActionEvent e) {
-        int numCitizensBefore = village.getCitizens().size();
+        int[] workers = workerCounts();
         village.update();
-        int numCitizensAfter = village.getCitizens().size();
-        updateCitizensList();
-        updateBuildingsList();
+        autosave.turnEnded(village);
+        int starved = village.getStarvedIndex();
+        if (starved != -1) {
+            citizensListModel.rowRemoved(starved);
+        }
+        buildingsChanged(workers);
         updateStatusPanel();
 
-        if (numCitizensBefore != numCitizensAfter) {
+        if (starved != -1) {
             JOptionPane.showMessageDialog(frame, "A CITIZEN STARVED TO DEATH DURING THE NIGHT!",
                     "Tragedy in the village", JOptionPane.INFORMATION_MESSAGE);
         } else {
@@ -456,6 +548,27 @@ public class GameManagerGUI extends JFrame {
         }
     }
 
+    //EFFECTS: returns the number of workers of each building, in the order of the building list
+    private int[] workerCounts() {
+        List<Building> buildings = village.getBuildings();
+        int[] counts = new int[buildings.size()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buildings.get(i).getNumWorkers();
+        }
+        return counts;
+    }
+
+    //REQUIRES: before was returned by workerCounts() and no building has been added or removed since
+    //EFFECTS: tells the building list about the buildings whose number of workers is no longer the one in before
+    private void buildingsChanged(int[] before) {
+        List<Building> buildings = village.getBuildings();
+        for (int i = 0; i < before.length; i++) {
+            if (buildings.get(i).getNumWorkers() != before[i]) {
+                buildingsListModel.rowChanged(i);
+            }
+        }
+    }
+
     //REQUIRES: ActionEvent triggered by user
     //EFFECTS: updates the state of the list panels
     private void updateStatusPanel() {
@@ -477,8 +590,8 @@ public class GameManagerGUI extends JFrame {
                     String.format("Enter a new name for %s.", citizenToRename.getName()),
                     "Rename Citizen", JOptionPane.QUESTION_MESSAGE);
             if (name != null && !name.trim().isEmpty()) {
-                citizenToRename.setName(name.trim());
-                updateCitizensList();
+                village.renameCitizen(selectedIndex, name.trim());
+                citizensListModel.rowChanged(selectedIndex);
             }
         } else {
             JOptionPane.showMessageDialog(frame, "Select a citizen to rename.",
@@ -499,8 +612,10 @@ public class GameManagerGUI extends JFrame {
                     "Remove Citizen", JOptionPane.YES_NO_OPTION);
 
             if (confirm == JOptionPane.YES_NO_OPTION) {
+                int[] workers = workerCounts();
                 village.removeCitizen(selectedCitizen);
-                updateCitizensList();
+                citizensListModel.rowRemoved(selectedCitizen);
+                buildingsChanged(workers);
             }
         } else {
             JOptionPane.showMessageDialog(frame,
@@ -517,7 +632,7 @@ public class GameManagerGUI extends JFrame {
         String name = JOptionPane.showInputDialog(frame, "Enter the name of the new citizen:");
         if (name != null && !name.trim().isEmpty()) {
             village.addCitizen(new Citizen(name, false));
-            updateCitizensList();
+            citizensListModel.rowAdded(village.getCitizens().size() - 1);
         }
     }
 
@@ -2,14 +2,29 @@ package ui;
 
 
 import model.Village;
+import persistence.EventJournal;
+
+import java.io.IOException;
 
 //Main class, creates a new village and game manager.
 public class Main {
-
+    static final String JOURNAL_STORE = "./data/events.journal";
 
     public static void main(String[] args) {
+        startEventLog();
         new GameManager(new Village());
         //GameManagerGUI gameManager = new GameManagerGUI(new Village());
 
     }
+
+    //MODIFIES: EventLog
+    //EFFECTS: Bounds the event log and journals every logged event to JOURNAL_STORE until the program exits,
+    //         the game goes on without a journal if it cannot be opened.
+    static void startEventLog() {
+        try {
+            EventJournal.startGameLog(JOURNAL_STORE);
+        } catch (IOException e) {
+            System.out.println("Unable to open event journal: " + e.getMessage());
+        }
+    }
 }
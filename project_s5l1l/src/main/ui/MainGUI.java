@@ -7,6 +7,7 @@ public class MainGUI {
 
 
     public static void main(String[] args) {
+        Main.startEventLog();
         //GameManager gameManager = new GameManager(new Village());
         new GameManagerGUI(new Village());
 
@@ -0,0 +1,34 @@
+package ui;
+
+import model.Building;
+import model.Citizen;
+
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.JList;
+import java.awt.Component;
+
+// Draws a row of the citizen or building list, the text of a row is only made when the row is drawn.
+class VillageCellRenderer extends DefaultListCellRenderer {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected,
+                                                  boolean cellHasFocus) {
+        return super.getListCellRendererComponent(list, describe(value), index, isSelected, cellHasFocus);
+    }
+
+    //EFFECTS: returns the text of the row showing value, a citizen by name and employment status,
+    //         a building by type, name and number of workers.
+    static String describe(Object value) {
+        if (value instanceof Citizen) {
+            Citizen c = (Citizen) value;
+            return String.format("Name: %s, Employment Status: %s", c.getName(), c.isWorking());
+        }
+        if (value instanceof Building) {
+            Building b = (Building) value;
+            return String.format("Type: %s, Name: %s, Number of Workers: %d",
+                    b.getType(), b.getName(), b.getNumWorkers());
+        }
+        return String.valueOf(value);
+    }
+}
@@ -0,0 +1,75 @@
+package ui;
+
+import model.Village;
+
+import javax.swing.AbstractListModel;
+import java.util.List;
+import java.util.function.Function;
+
+// The rows of a JList read straight from one of the lists of a village, the citizens or the buildings.
+// Rows are looked up only when the list asks for them, so only the rows on screen are ever read or drawn.
+// The size is kept as of the last event fired, so the list never sees the village change under it between events:
+// after changing the village, call the method below that matches the change.
+class VillageListModel<E> extends AbstractListModel<E> {
+    private static final long serialVersionUID = 1L;
+
+    private final Function<Village, List<E>> rows;
+    private Village village;
+    private int size;
+
+    //REQUIRES: village !null, rows !null
+    //EFFECTS: makes a model of the list rows returns for village.
+    VillageListModel(Village village, Function<Village, List<E>> rows) {
+        this.rows = rows;
+        this.village = village;
+        this.size = rows.apply(village).size();
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public E getElementAt(int index) {
+        return rows.apply(village).get(index);
+    }
+
+    //REQUIRES: village !null
+    //MODIFIES: this
+    //EFFECTS: shows the rows of village instead, the rows shown so far are all removed.
+    void setVillage(Village village) {
+        int old = size;
+        size = 0;
+        if (old > 0) {
+            fireIntervalRemoved(this, 0, old - 1);
+        }
+        this.village = village;
+        size = rows.apply(village).size();
+        if (size > 0) {
+            fireIntervalAdded(this, 0, size - 1);
+        }
+    }
+
+    //REQUIRES: 0 <= index < getSize()
+    //EFFECTS: tells the list the row at index has changed.
+    void rowChanged(int index) {
+        fireContentsChanged(this, index, index);
+    }
+
+    //REQUIRES: a row has been added to the village at index
+    //MODIFIES: this
+    //EFFECTS: tells the list a row was added at index.
+    void rowAdded(int index) {
+        size++;
+        fireIntervalAdded(this, index, index);
+    }
+
+    //REQUIRES: the row at index has been removed from the village
+    //MODIFIES: this
+    //EFFECTS: tells the list the row at index was removed.
+    void rowRemoved(int index) {
+        size--;
+        fireIntervalRemoved(this, index, index);
+    }
+}
@@ -98,5 +98,47 @@ public class BuildingTest {
         assertEquals(3, json.getInt("maxWorkers"));
     }
 
+    @Test
+    public void testRemoveGivenWorker() {
+        b1.addWorker(c1);
+        b1.addWorker(c2);
+        b1.addWorker(c3);
+        assertTrue(b1.removeWorker(c2));
+        assertFalse(b1.removeWorker(c2));
+        assertEquals(2, b1.getNumWorkers());
+        assertEquals(c1, b1.removeWorker());
+        assertEquals(c3, b1.removeWorker());
+    }
 
-}
\ No newline at end of file
+    @Test
+    public void testAddSameWorkerTwice() {
+        b1.addWorker(c1);
+        b1.addWorker(c1);
+        assertEquals(1, b1.getNumWorkers());
+    }
+
+    @Test
+    public void testFragmentCachedUntilChanged() {
+        Village village = new Village();
+        village.build("FARM", "Farm 1", 0, 0);
+        Building farm = village.getBuildings().get(3);
+        CitizenTable table = village.getCitizenTable();
+        String first = farm.fragment(table, table.positionsBySlot());
+        assertSame(first, farm.fragment(table, table.positionsBySlot()));
+
+        village.hire(village.getCitizens().get(4), farm);
+        String hired = farm.fragment(table, table.positionsBySlot());
+        assertNotEquals(first, hired);
+        village.renameCitizen(5, "Other");
+        assertSame(hired, farm.fragment(table, table.positionsBySlot()));
+
+        village.removeCitizen(0);
+        String moved = farm.fragment(table, table.positionsBySlot());
+        assertNotEquals(hired, moved);
+        farm.setName("Farm 2");
+        String renamed = farm.fragment(table, table.positionsBySlot());
+        assertNotEquals(moved, renamed);
+        farm.setMaxWorkers(1);
+        assertNotEquals(renamed, farm.fragment(table, table.positionsBySlot()));
+    }
+}
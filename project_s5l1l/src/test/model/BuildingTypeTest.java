@@ -0,0 +1,27 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BuildingTypeTest {
+
+    @Test
+    public void testFromLabel() {
+        assertEquals(BuildingType.FARM, BuildingType.fromLabel("Farm"));
+        assertEquals(BuildingType.FARM, BuildingType.fromLabel("FARM"));
+        assertEquals(BuildingType.LUMBER_MILL, BuildingType.fromLabel("lumber mill"));
+        assertEquals(BuildingType.MINE, BuildingType.fromLabel("Mine"));
+        assertNull(BuildingType.fromLabel("unknown"));
+    }
+
+    @Test
+    public void testCatalog() {
+        assertEquals(Resource.FOOD, BuildingType.FARM.getResource());
+        assertEquals(Resource.STONE, BuildingType.MINE.getResource());
+        assertEquals(Resource.WOOD, BuildingType.LUMBER_MILL.getResource());
+        assertEquals(4, BuildingType.FARM.getWoodCost());
+        assertEquals(1, BuildingType.FARM.getStoneCost());
+        assertEquals("Lumber Mill", BuildingType.LUMBER_MILL.toString());
+    }
+}
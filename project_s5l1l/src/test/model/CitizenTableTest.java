@@ -0,0 +1,164 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CitizenTableTest {
+    private CitizenTable table;
+    private Citizen c1, c2, c3;
+
+    @BeforeEach
+    public void setUp() {
+        table = new CitizenTable();
+        c1 = new Citizen("Tommy", false);
+        c2 = new Citizen("Nane", true);
+        c3 = new Citizen("Onur", false);
+        table.add(c1);
+        table.add(c2);
+        table.add(c3);
+    }
+
+    @Test
+    public void testAddKeepsState() {
+        assertEquals(3, table.size());
+        assertEquals("Tommy", c1.getName());
+        assertFalse(c1.isWorking());
+        assertEquals("Nane", c2.getName());
+        assertTrue(c2.isWorking());
+        assertSame(c1, table.view(table.slotAt(0)));
+        assertSame(c3, table.view(table.slotAt(2)));
+    }
+
+    @Test
+    public void testViewWritesThroughToTable() {
+        c1.setWorking(true);
+        c3.setName("Griffon");
+        assertTrue(table.isWorking(table.slotAt(0)));
+        assertEquals("Griffon", table.getName(table.slotAt(2)));
+        assertEquals(2, table.size() - table.countIdle());
+    }
+
+    @Test
+    public void testRemoveAtDetaches() {
+        Citizen removed = table.removeAt(1);
+        assertSame(c2, removed);
+        assertEquals(2, table.size());
+        assertSame(c3, table.view(table.slotAt(1)));
+
+        removed.setName("Still Nane");
+        assertEquals("Still Nane", removed.getName());
+        assertTrue(removed.isWorking());
+    }
+
+    @Test
+    public void testSlotsAreReused() {
+        int slot = table.slotAt(0);
+        table.removeAt(0);
+        Citizen c4 = new Citizen("Tommy", true);
+        table.add(c4);
+        assertEquals(slot, table.slotAt(2));
+        assertTrue(c4.isWorking());
+        assertFalse(c1.isWorking());
+    }
+
+    @Test
+    public void testEmployer() {
+        Building farm = new Building("Farm", "Farm 1");
+        farm.addWorker(c1);
+        assertSame(farm, c1.getEmployer());
+        assertSame(farm, table.getBuilding(table.slotAt(0)));
+        assertNull(c2.getEmployer());
+        farm.removeWorker();
+        assertNull(c1.getEmployer());
+    }
+
+    @Test
+    public void testManyCitizens() {
+        for (int i = 0; i < 1000; i++) {
+            table.add(new Citizen("Founder", i % 2 == 0));
+        }
+        assertEquals(1003, table.size());
+        assertEquals(2 + 500, table.countIdle());
+        assertTrue(table.isWorking(table.slotAt(999)));
+        assertFalse(table.isWorking(table.slotAt(1000)));
+    }
+
+    @Test
+    public void testAsList() {
+        List<Citizen> list = table.asList();
+        assertEquals(3, list.size());
+        assertTrue(list.contains(c2));
+        list.add(new Citizen("Griffon", false));
+        assertEquals(4, table.size());
+        assertSame(c1, list.remove(0));
+        list.clear();
+        assertTrue(list.isEmpty());
+        assertEquals("Nane", c2.getName());
+    }
+
+    @Test
+    public void testAsListIndexOfBySlot() {
+        List<Citizen> list = table.asList();
+        assertEquals(2, list.indexOf(c3));
+        Citizen removed = list.remove(0);
+        assertEquals(1, list.indexOf(c3));
+        assertEquals(1, list.lastIndexOf(c3));
+        assertEquals(-1, list.indexOf(removed));
+        assertFalse(list.contains(removed));
+        assertFalse(list.contains("Onur"));
+        assertEquals(-1, list.indexOf(new Citizen("Onur", false)));
+    }
+
+    @Test
+    public void testFragmentsSharedByName() {
+        Citizen twin = new Citizen("Tommy", false);
+        table.add(twin);
+        String tommy = table.fragment(c1.getSlot());
+        assertSame(tommy, table.fragment(twin.getSlot()));
+        assertEquals("{\"name\":\"Tommy\",\"isWorking\":false}", tommy);
+
+        twin.setWorking(true);
+        assertNotEquals(tommy, table.fragment(twin.getSlot()));
+        c3.setName("Tommy");
+        assertSame(tommy, table.fragment(c3.getSlot()));
+    }
+
+    @Test
+    public void testUnusedNamesDropped() {
+        c3.setName("Tommy");
+        assertArrayEquals(new String[] {"Tommy", "Nane"}, table.names());
+        table.removeAt(1);
+        assertArrayEquals(new String[] {"Tommy"}, table.names());
+        assertArrayEquals(new int[] {0, 0}, table.nameIdsInOrder());
+
+        table.add("Bea", false);
+        for (int i = 0; i < 1000; i++) {
+            c1.setName("Settler " + i);
+        }
+        assertArrayEquals(new String[] {"Tommy", "Bea", "Settler 999"}, table.names());
+        assertArrayEquals(new int[] {2, 0, 1}, table.nameIdsInOrder());
+        assertEquals("{\"name\":\"Bea\",\"isWorking\":false}", table.fragment(table.slotAt(2)));
+    }
+
+    @Test
+    public void testViewsNotHeldAreReleased() {
+        table.add("Bea", false);
+        int slot = table.slotAt(3);
+        Citizen held = table.view(slot);
+        assertSame(held, table.view(slot));
+
+        WeakReference<Citizen> dropped = new WeakReference<>(held);
+        held = null;
+        for (int i = 0; i < 50 && dropped.get() != null; i++) {
+            System.gc();
+        }
+        assertNull(dropped.get());
+        assertEquals("Bea", table.view(slot).getName());
+        assertSame(c1, table.view(table.slotAt(0)));
+    }
+}
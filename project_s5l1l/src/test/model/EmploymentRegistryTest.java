@@ -0,0 +1,84 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EmploymentRegistryTest {
+    private EmploymentRegistry registry;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new EmploymentRegistry(2);
+    }
+
+    @Test
+    public void testIdleIndex() {
+        assertEquals(-1, registry.anyIdle());
+        registry.setIdle(0, true);
+        registry.setIdle(1, true);
+        registry.setIdle(1, true);
+        assertEquals(2, registry.idleCount());
+        assertTrue(registry.isIdle(0));
+
+        registry.setIdle(0, false);
+        assertEquals(1, registry.idleCount());
+        assertEquals(1, registry.anyIdle());
+        assertEquals(1, registry.idleSlotAt(0));
+        assertFalse(registry.isIdle(0));
+    }
+
+    @Test
+    public void testEmployer() {
+        Building farm = new Building("Farm", "Farm 1");
+        Building mine = new Building("Mine", "Mine 1");
+        registry.setEmployer(0, farm);
+        registry.setEmployer(1, mine);
+        assertSame(farm, registry.getEmployer(0));
+        assertSame(mine, registry.getEmployer(1));
+        registry.setEmployer(1, null);
+        assertNull(registry.getEmployer(1));
+    }
+
+    @Test
+    public void testGrowAndRelease() {
+        registry.ensureCapacity(100);
+        registry.setIdle(99, true);
+        registry.setEmployer(50, new Building("Farm", "Farm 1"));
+        assertEquals(99, registry.anyIdle());
+        registry.release(99);
+        registry.release(50);
+        assertEquals(0, registry.idleCount());
+        assertNull(registry.getEmployer(50));
+    }
+
+    @Test
+    public void testClear() {
+        registry.setIdle(0, true);
+        registry.setEmployer(1, new Building("Farm", "Farm 1"));
+        registry.clear();
+        assertEquals(0, registry.idleCount());
+        assertNull(registry.getEmployer(1));
+    }
+
+    @Test
+    public void testBuildingForgottenOnceEmpty() {
+        Building farm = new Building("Farm", "Farm 1");
+        Building mine = new Building("Mine", "Mine 1");
+        registry.setEmployer(0, farm);
+        registry.setEmployer(1, farm);
+        assertEquals(1, registry.buildingCount());
+        registry.setEmployer(0, null);
+        assertEquals(1, registry.buildingCount());
+        registry.release(1);
+        assertEquals(0, registry.buildingCount());
+
+        registry.setEmployer(0, mine);
+        registry.setEmployer(1, farm);
+        registry.setEmployer(0, farm);
+        assertEquals(1, registry.buildingCount());
+        assertSame(farm, registry.getEmployer(0));
+        assertSame(farm, registry.getEmployer(1));
+    }
+}
@@ -0,0 +1,53 @@
+package model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventCategoryTest {
+
+    @AfterEach
+    public void runAfter() {
+        EventCategory.logAll();
+    }
+
+    @Test
+    public void testDefaultLogsAll() {
+        for (EventCategory category : EventCategory.values()) {
+            assertEquals(EventCategory.ALL, category.getSampling());
+            assertTrue(category.sample());
+        }
+    }
+
+    @Test
+    public void testOff() {
+        EventCategory.TURN.setSampling(EventCategory.OFF);
+        for (int i = 0; i < 10; i++) {
+            assertFalse(EventCategory.TURN.sample());
+        }
+        assertTrue(EventCategory.STRUCTURE.sample());
+    }
+
+    @Test
+    public void testSampleEvery() {
+        EventCategory.RESOURCES.setSampling(3);
+        int kept = 0;
+        for (int i = 0; i < 30; i++) {
+            if (EventCategory.RESOURCES.sample()) {
+                kept++;
+            }
+        }
+        assertEquals(10, kept);
+        EventCategory.logAll();
+        assertTrue(EventCategory.RESOURCES.sample());
+    }
+
+    @Test
+    public void testMessageCategories() {
+        assertEquals(EventCategory.TURN, EventMessage.CITIZEN_ATE.getCategory());
+        assertEquals(EventCategory.STRUCTURE, EventMessage.CITIZEN_STARVED.getCategory());
+        assertEquals(EventCategory.WORKFORCE, EventMessage.WORKER_ADDED.getCategory());
+        assertEquals(EventCategory.RESOURCES, EventMessage.TOTAL_FOOD.getCategory());
+    }
+}
@@ -0,0 +1,46 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventClockTest {
+
+    @Test
+    public void testWall() {
+        long before = System.currentTimeMillis();
+        long now = EventClock.WALL.nowNanos();
+        long after = System.currentTimeMillis();
+        assertTrue(now / 1_000_000L >= before);
+        assertTrue(now / 1_000_000L <= after);
+    }
+
+    @Test
+    public void testMonotonic() {
+        long previous = EventClock.MONOTONIC.nowNanos();
+        for (int i = 0; i < 1000; i++) {
+            long now = EventClock.MONOTONIC.nowNanos();
+            assertTrue(now >= previous);
+            previous = now;
+        }
+        assertTrue(Math.abs(previous / 1_000_000L - System.currentTimeMillis()) < 1000);
+    }
+
+    @Test
+    public void testCoarse() throws InterruptedException {
+        long[] source = {5L};
+        CoarseClock clock = EventClock.coarse(() -> source[0], 1);
+        assertEquals(5L, clock.nowNanos());
+        source[0] = 9L;
+        long deadline = System.currentTimeMillis() + 5000;
+        while (clock.nowNanos() != 9L && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(9L, clock.nowNanos());
+        clock.close();
+        Thread.sleep(20);
+        source[0] = 12L;
+        Thread.sleep(20);
+        assertEquals(9L, clock.nowNanos());
+    }
+}
@@ -9,6 +9,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
@@ -56,4 +57,191 @@ public class EventLogTest {
 		assertEquals("Event log cleared.", itr.next().getDescription());
 		assertFalse(itr.hasNext());
 	}
+
+	@Test
+	public void testRingBufferDropsOldest() {
+		EventLog el = EventLog.newLog();
+		el.setCapacity(2);
+		el.logEvent(e1);
+		el.logEvent(e2);
+		el.logEvent(e3);
+		assertEquals(2, el.getCapacity());
+		assertEquals(1, el.getDroppedCount());
+
+		Iterator<Event> itr = el.iterator();
+		assertEquals(e2, itr.next());
+		assertEquals(e3, itr.next());
+		assertFalse(itr.hasNext());
+	}
+
+	@Test
+	public void testSetCapacityKeepsNewest() {
+		EventLog el = EventLog.newLog();
+		for (int i = 0; i < 100; i++) {
+			el.logEvent(new Event("E" + i));
+		}
+		el.setCapacity(10);
+		assertEquals(90, el.getDroppedCount());
+		Iterator<Event> itr = el.iterator();
+		assertEquals("E90", itr.next().getDescription());
+
+		el.setCapacity(EventLog.UNBOUNDED);
+		for (int i = 0; i < 100; i++) {
+			el.logEvent(new Event("F" + i));
+		}
+		assertEquals(90, el.getDroppedCount());
+		int n = 0;
+		for (Event e : el) {
+			n++;
+		}
+		assertEquals(110, n);
+	}
+
+	@Test
+	public void testClearBoundedLog() {
+		EventLog el = EventLog.newLog();
+		el.setCapacity(2);
+		el.logEvent(e1);
+		el.logEvent(e2);
+		el.logEvent(e3);
+		el.clear();
+		assertEquals(0, el.getDroppedCount());
+		Iterator<Event> itr = el.iterator();
+		assertEquals("Event log cleared.", itr.next().getDescription());
+		assertFalse(itr.hasNext());
+	}
+
+	@Test
+	public void testListener() {
+		EventLog el = EventLog.newLog();
+		el.setCapacity(1);
+		List<Event> heard = new ArrayList<>();
+		EventLogListener listener = heard::add;
+		el.addListener(listener);
+		el.logEvent(e1);
+		el.logEvent(e2);
+		el.removeListener(listener);
+		el.logEvent(e3);
+		assertEquals(2, heard.size());
+		assertEquals(e1, heard.get(0));
+		assertEquals(e2, heard.get(1));
+		assertEquals(2, el.getDroppedCount());
+	}
+
+	@Test
+	public void testConcurrentWriters() throws InterruptedException {
+		EventLog el = EventLog.newLog();
+		int threads = 16;
+		int perThread = 5000;
+		Thread[] writers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			String prefix = t + ":";
+			writers[t] = new Thread(() -> {
+				for (int i = 0; i < perThread; i++) {
+					el.logEvent(new Event(prefix + i));
+				}
+			});
+			writers[t].start();
+		}
+		int seen = 0;
+		while (seen < threads * perThread) {
+			int n = 0;
+			for (Event e : el) {
+				n++;
+			}
+			assertTrue(n >= seen);
+			seen = n;
+		}
+		for (Thread w : writers) {
+			w.join();
+		}
+
+		int[] nextOf = new int[threads];
+		for (Event e : el) {
+			String[] parts = e.getDescription().split(":");
+			int t = Integer.parseInt(parts[0]);
+			assertEquals(nextOf[t], Integer.parseInt(parts[1]));
+			nextOf[t]++;
+		}
+		for (int t = 0; t < threads; t++) {
+			assertEquals(perThread, nextOf[t]);
+		}
+		assertEquals(0, el.getDroppedCount());
+	}
+
+	@Test
+	public void testConcurrentWritersBounded() throws InterruptedException {
+		EventLog el = EventLog.newLog();
+		el.setCapacity(1000);
+		Thread[] writers = startWriters(el, 16, 5000);
+		for (Thread w : writers) {
+			w.join();
+		}
+
+		int[] lastOf = new int[16];
+		Arrays.fill(lastOf, -1);
+		int n = 0;
+		for (Event e : el) {
+			String[] parts = e.getDescription().split(":");
+			int t = Integer.parseInt(parts[0]);
+			int i = Integer.parseInt(parts[1]);
+			assertTrue(i > lastOf[t]);
+			lastOf[t] = i;
+			n++;
+		}
+		assertEquals(1000, n);
+		assertEquals(79000, el.getDroppedCount());
+	}
+
+	@Test
+	public void testSetCapacityWhileWriting() throws InterruptedException {
+		EventLog el = EventLog.newLog();
+		Thread[] writers = startWriters(el, 8, 20000);
+		for (int i = 0; i < 200; i++) {
+			el.setCapacity(i % 2 == 0 ? 500 + i : EventLog.UNBOUNDED);
+		}
+		el.setCapacity(500);
+		for (Thread w : writers) {
+			w.join();
+		}
+		int n = 0;
+		for (Event e : el) {
+			n++;
+		}
+		assertEquals(500, n);
+	}
+
+	// EFFECTS: starts threads threads that each log perThread events named thread:index, returns the threads
+	private static Thread[] startWriters(EventLog el, int threads, int perThread) {
+		Thread[] writers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			String prefix = t + ":";
+			writers[t] = new Thread(() -> {
+				for (int i = 0; i < perThread; i++) {
+					el.logEvent(new Event(prefix + i));
+				}
+			});
+			writers[t].start();
+		}
+		return writers;
+	}
+
+	@Test
+	public void testSnapshotIgnoresLaterEvents() {
+		EventLog el = EventLog.newLog();
+		el.setCapacity(3000);
+		for (int i = 0; i < 5000; i++) {
+			el.logEvent(new Event("E" + i));
+		}
+		Iterator<Event> itr = el.iterator();
+		for (int i = 0; i < 5000; i++) {
+			el.logEvent(new Event("F" + i));
+		}
+		for (int i = 2000; i < 5000; i++) {
+			assertEquals("E" + i, itr.next().getDescription());
+		}
+		assertFalse(itr.hasNext());
+		assertEquals(7000, el.getDroppedCount());
+		assertEquals("F2000", el.iterator().next().getDescription());
+	}
 }
@@ -5,6 +5,8 @@
 
 package model;
 
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -12,6 +14,8 @@ import java.util.Calendar;
 import java.util.Date;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 /**
  * Unit tests for the Event class
@@ -23,12 +27,24 @@ public class EventTest {
 	//NOTE: these tests might fail if time at which line (2) below is executed
 	//is different from time that line (1) is executed.  Lines (1) and (2) must
 	//run in same millisecond for this test to make sense and pass.
+	//Event no longer uses Calendar, so Calendar is loaded once up front to keep
+	//its first use from falling between lines (1) and (2).
+
+	@BeforeAll
+	public static void loadCalendar() {
+		Calendar.getInstance();
+	}
 	
 	@BeforeEach
 	public void runBefore() {
 		e = new Event("Sensor open at door");   // (1)
 		d = Calendar.getInstance().getTime();   // (2)
 	}
+
+	@AfterEach
+	public void runAfter() {
+		Event.setClock(EventClock.WALL);
+	}
 	
 	@Test
 	public void testEvent() {
@@ -40,4 +56,39 @@ public class EventTest {
 	public void testToString() {
 		assertEquals(d.toString() + "\n" + "Sensor open at door", e.toString());
 	}
+
+	@Test
+	public void testTemplateEvent() {
+		Event added = new Event(EventMessage.WORKER_ADDED, "Farm 1", null);
+		assertEquals(EventMessage.WORKER_ADDED, added.getMessage());
+		assertEquals("A worker was added to Farm 1", added.getDescription());
+
+		Event renamed = new Event(EventMessage.RENAMED, "Tommy", "Nane");
+		assertEquals("Tommy was renamed to Nane", renamed.getDescription());
+		assertEquals(renamed.getDescription(), renamed.getDescription());
+	}
+
+	@Test
+	public void testNumericTemplateEvent() {
+		Event fed = new Event(EventMessage.CITIZENS_FED, 6, 14);
+		assertEquals("6 citizens were able to eat, Total Food is now: 14", fed.getDescription());
+		Event food = new Event(EventMessage.TOTAL_FOOD, 24, 0);
+		assertEquals("Total Food is now: 24", food.getDescription());
+		assertNull(e.getMessage());
+	}
+
+	@Test
+	public void testClock() {
+		Event.setClock(() -> 1_500_123_456_789L);
+		Event first = new Event("Tick");
+		assertEquals(1_500_123_456_789L, first.getTimestamp());
+		assertEquals(new Date(1_500_123L), first.getDate());
+		assertEquals(first.getDate(), first.getDate());
+
+		Event second = new Event("Tick");
+		assertEquals(first, second);
+		assertEquals(first.hashCode(), second.hashCode());
+		Event.setClock(() -> 1_500_123_456_790L);
+		assertNotEquals(first, new Event("Tick"));
+	}
 }
@@ -0,0 +1,97 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VillageBuilderTest {
+
+    @Test
+    public void testEmptyVillage() {
+        Village village = new VillageBuilder().build();
+        assertTrue(village.getCitizens().isEmpty());
+        assertTrue(village.getBuildings().isEmpty());
+        assertEquals(0, village.getTotalFood());
+        assertEquals(0, village.getTotalWood());
+        assertEquals(0, village.getTotalStone());
+        assertEquals(0, village.getTurn());
+    }
+
+    @Test
+    public void testNothingLoggedOrRecorded() {
+        EventLog log = EventLog.newLog();
+        EventLog previous = EventLog.bind(log);
+        Village village;
+        try {
+            village = new VillageBuilder()
+                    .addBuilding("Farm", "Farm 1", 2)
+                    .addWorker(1)
+                    .addCitizen("Ann", false)
+                    .addCitizen("Bob", true)
+                    .setTotal(Resource.FOOD, 9)
+                    .setTurn(4)
+                    .build();
+        } finally {
+            EventLog.bind(previous);
+        }
+        assertFalse(log.iterator().hasNext());
+        assertEquals(9, village.getTotalFood());
+        assertEquals(4, village.getTurn());
+
+        List<Command> commands = new ArrayList<>();
+        village.setCommandListener(commands::add);
+        village.update();
+        assertEquals(1, commands.size());
+    }
+
+    @Test
+    public void testWorkersAndMaxWorkersRestored() {
+        Village village = new VillageBuilder()
+                .addCitizen("Ann", true)
+                .addCitizen("Bob", false)
+                .addCitizen("Cid", true)
+                .addBuilding("Farm", "Farm 1", 7)
+                .addWorker(2)
+                .addWorker(0)
+                .addBuilding("Mine", "Mine 1", 1)
+                .addOutsider("Visitor", true)
+                .build();
+        Building farm = village.getBuildings().get(0);
+        assertEquals(7, farm.getMaxWorkers());
+        List<Citizen> workers = new ArrayList<>(farm.getWorkers());
+        assertSame(village.getCitizens().get(2), workers.get(0));
+        assertSame(village.getCitizens().get(0), workers.get(1));
+        assertSame(farm, village.getCitizens().get(0).getEmployer());
+        assertEquals(6, village.getProduction(Resource.FOOD));
+        assertEquals(1, village.getUnemployed().size());
+        assertSame(village.getCitizens().get(1), village.findUnemployed());
+
+        Building mine = village.getBuildings().get(1);
+        Citizen visitor = mine.getWorkers().iterator().next();
+        assertEquals("Visitor", visitor.getName());
+        assertFalse(village.getCitizens().contains(visitor));
+        assertEquals(3, village.getProduction(Resource.STONE));
+    }
+
+    @Test
+    public void testWorkersMatchedByName() {
+        Village village = new VillageBuilder()
+                .addBuilding("Farm", "Farm 1", 5)
+                .addWorker("Founder", true)
+                .addWorker("Founder", true)
+                .addWorker("Stranger", true)
+                .addCitizen("Founder", false)
+                .addCitizen("Founder", true)
+                .addCitizen("Founder", true)
+                .build();
+        List<Citizen> workers = new ArrayList<>(village.getBuildings().get(0).getWorkers());
+        assertEquals(3, workers.size());
+        assertSame(village.getCitizens().get(1), workers.get(0));
+        assertSame(village.getCitizens().get(2), workers.get(1));
+        assertFalse(village.getCitizens().contains(workers.get(2)));
+        assertNull(village.getCitizens().get(0).getEmployer());
+    }
+}
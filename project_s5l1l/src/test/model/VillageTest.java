@@ -3,6 +3,14 @@ package model;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import persistence.JsonOutput;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -66,8 +74,27 @@ public class VillageTest {
         assertEquals(3, village.getUnemployed().size());
         village.addCitizen(new Citizen("test", false));
         assertEquals(4, village.getUnemployed().size());
+    }
+
+    @Test
+    public void testUnemployedNotRepeatedByTurns() {
+        village.addCitizen(new Citizen("test", false));
         village.update();
-        assertEquals(8, village.getUnemployed().size());
+        List<Citizen> unemployed = village.getUnemployed();
+        assertEquals(4, unemployed.size());
+        assertEquals(4, new HashSet<>(unemployed).size());
+    }
+
+    @Test
+    public void testUnemployedListsReadIndependently() {
+        List<Citizen> first = village.getUnemployed();
+        List<Citizen> second = village.getUnemployed();
+        assertSame(village.getCitizens().get(5), first.get(2));
+        assertSame(village.getCitizens().get(3), second.get(0));
+        assertSame(village.getCitizens().get(4), first.get(1));
+        village.hire(village.getCitizens().get(3), village.getBuildings().get(0));
+        assertSame(village.getCitizens().get(5), first.get(1));
+        assertEquals(2, second.size());
     }
 
     @Test
@@ -123,7 +150,441 @@ public class VillageTest {
         assertEquals(village.getTotalStone(), json.getInt("totalStone"));
     }
 
+    @Test
+    public void testAdvanceMatchesUpdate() {
+        Village stepped = new Village();
+        for (int i = 0; i < 3; i++) {
+            assertTrue(stepped.hire(stepped.findUnemployed(), stepped.getBuildings().get(0)));
+            assertTrue(village.hire(village.findUnemployed(), village.getBuildings().get(0)));
+        }
+        for (int i = 0; i < 50; i++) {
+            stepped.update();
+        }
+        assertEquals(50, village.advance(50));
+        assertEquals(stepped.getTotalFood(), village.getTotalFood());
+        assertEquals(stepped.getTotalWood(), village.getTotalWood());
+        assertEquals(stepped.getTotalStone(), village.getTotalStone());
+        assertEquals(stepped.getCitizens().size(), village.getCitizens().size());
+    }
 
-}
+    @Test
+    public void testAdvanceStopsAtStarvation() {
+        for (int i = 0; i < 10; i++) {
+            village.addCitizen(new Citizen("Hungry", false));
+        }
+        Village stepped = new Village();
+        for (int i = 0; i < 10; i++) {
+            stepped.addCitizen(new Citizen("Hungry", false));
+        }
+        int turns = 0;
+        int population = stepped.getCitizens().size();
+        while (stepped.getCitizens().size() == population) {
+            stepped.update();
+            turns++;
+        }
+
+        assertEquals(turns, village.advance(10000));
+        assertEquals(stepped.getCitizens().size(), village.getCitizens().size());
+        assertEquals(stepped.getTotalFood(), village.getTotalFood());
+        assertEquals(stepped.getTotalWood(), village.getTotalWood());
+        assertEquals(stepped.getTotalStone(), village.getTotalStone());
+    }
+
+    @Test
+    public void testAdvanceOddFoodNeverStarves() {
+        village.getCitizens().clear();
+        village.getBuildings().clear();
+        village.addCitizen(new Citizen("Tommy", false));
+        Building farm = new Building("Farm", "Farm 1");
+        farm.addWorker(new Citizen("Nane", true));
+        village.getBuildings().add(farm);
+
+        assertEquals(10000, village.advance(10000));
+        assertEquals(1, village.getCitizens().size());
+        assertEquals(20 + 10000, village.getTotalFood());
+    }
+
+    @Test
+    public void testAdvanceZeroTurns() {
+        int food = village.getTotalFood();
+        assertEquals(0, village.advance(0));
+        assertEquals(food, village.getTotalFood());
+    }
+
+    @Test
+    public void testProductionTotals() {
+        assertEquals(3, village.getProduction(Resource.FOOD));
+        assertEquals(3, village.getProduction(Resource.WOOD));
+        assertEquals(3, village.getProduction(Resource.STONE));
+
+        Building farm = village.getBuildings().get(0);
+        assertTrue(village.hire(village.findUnemployed(), farm));
+        assertEquals(6, village.getProduction(Resource.FOOD));
+        farm.removeWorker();
+        farm.removeWorker();
+        assertEquals(0, village.getProduction(Resource.FOOD));
+
+        assertTrue(village.build(BuildingType.MINE, "Mine 2"));
+        assertTrue(village.hire(village.findUnemployed(), village.getBuildings().get(3)));
+        assertEquals(6, village.getProduction(Resource.STONE));
+
+        village.getBuildings().remove(3);
+        assertEquals(3, village.getProduction(Resource.STONE));
+        village.getBuildings().clear();
+        assertEquals(0, village.getProduction(Resource.WOOD));
+        assertEquals(0, village.getProduction(Resource.STONE));
+    }
+
+    @Test
+    public void testBuildUsesCatalogCosts() {
+        assertTrue(village.build(BuildingType.LUMBER_MILL, "Mill 2"));
+        assertEquals(15 - 3, village.getTotalWood());
+        assertEquals(15 - 2, village.getTotalStone());
+        assertEquals(BuildingType.LUMBER_MILL, village.getBuildings().get(3).getKind());
+        assertEquals("Lumber Mill", village.getBuildings().get(3).getType());
+    }
+
+    @Test
+    public void testUpdateUsesProductionTotals() {
+        Building farm = new Building("Farm", "Farm 2");
+        farm.addWorker(new Citizen("Tommy", true));
+        village.getBuildings().add(farm);
+        assertEquals(6, village.getProduction(Resource.FOOD));
+        village.getUpdateResources();
+        assertEquals(20 + 6, village.getTotalFood());
+    }
+
+    @Test
+    public void testHireAndFire() {
+        Building farm = village.getBuildings().get(0);
+        Citizen c = village.findUnemployed();
+        assertFalse(c.isWorking());
+
+        assertTrue(village.hire(c, farm));
+        assertTrue(c.isWorking());
+        assertEquals(2, village.getUnemployed().size());
+        assertFalse(village.getUnemployed().contains(c));
+        assertFalse(village.hire(c, village.getBuildings().get(1)));
+
+        Citizen founder = village.getCitizens().get(0);
+        assertSame(founder, village.fire(farm));
+        assertFalse(founder.isWorking());
+        assertTrue(village.getUnemployed().contains(founder));
+        assertEquals(1, farm.getNumWorkers());
+    }
+
+    @Test
+    public void testHireWhenFull() {
+        Building farm = village.getBuildings().get(0);
+        farm.setMaxWorkers(1);
+        assertFalse(village.hire(village.findUnemployed(), farm));
+        assertEquals(3, village.getUnemployed().size());
+    }
+
+    @Test
+    public void testFindUnemployedWhenEveryoneWorks() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(village.hire(village.findUnemployed(), village.getBuildings().get(i)));
+        }
+        assertNull(village.findUnemployed());
+        assertTrue(village.getUnemployed().isEmpty());
+    }
+
+    @Test
+    public void testRemoveEmployedCitizen() {
+        Building farm = village.getBuildings().get(0);
+        assertEquals(1, farm.getNumWorkers());
+        Citizen removed = village.removeCitizen(0);
+        assertEquals(0, farm.getNumWorkers());
+        assertNull(removed.getEmployer());
+        assertEquals(0, village.getProduction(Resource.FOOD));
+        assertEquals(3, village.getUnemployed().size());
+    }
+
+    @Test
+    public void testUnemployedInOrder() {
+        Citizen c = new Citizen("test", false);
+        village.addCitizen(c);
+        assertSame(village.getCitizens().get(3), village.getUnemployed().get(0));
+        assertSame(village.getCitizens().get(5), village.getUnemployed().get(2));
+        assertSame(c, village.getUnemployed().get(3));
+
+        Citizen founder = village.getCitizens().get(0);
+        village.fire(village.getBuildings().get(0));
+        assertSame(founder, village.getUnemployed().get(4));
+        assertTrue(village.hire(village.getUnemployed().get(1), village.getBuildings().get(0)));
+        assertSame(village.getCitizens().get(5), village.getUnemployed().get(1));
+        assertSame(founder, village.getUnemployed().get(3));
+    }
+
+    @Test
+    public void testUnemployedStaysFlatOverManyTurns() {
+        Building farm = new Building(BuildingType.FARM, "Farm 2");
+        for (int i = 0; i < 3; i++) {
+            farm.addWorker(new Citizen("Hand", true));
+        }
+        village.getBuildings().add(farm);
+        EventLog previous = EventLog.bind(EventLog.newLog());
+        long before = 0;
+        try {
+            for (int turn = 0; turn < 1000000; turn++) {
+                village.update();
+                if (turn % 1000 == 0) {
+                    EventLog.getInstance().clear();
+                }
+                if (turn == 10000) {
+                    before = usedHeap();
+                }
+            }
+        } finally {
+            EventLog.bind(previous);
+        }
+        long grown = usedHeap() - before;
+        assertTrue(grown < 1024 * 1024, "heap grew by " + grown + " bytes");
+        assertEquals(6, village.getCitizens().size());
+        assertEquals(3, village.getUnemployed().size());
+        assertSame(village.getCitizens().get(5), village.getUnemployed().get(2));
+    }
+
+    //EFFECTS: returns the bytes of heap in use once garbage has been collected
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Test
+    public void testBatchedConsumptionStarvesFirstUnfed() {
+        village.getBuildings().clear();
+        village.changeFood(-village.getTotalFood() + 7);
+        Citizen unfed = village.getCitizens().get(4);
+        Citizen last = village.getCitizens().get(5);
+
+        village.update();
+        assertEquals(0, village.getTotalFood());
+        assertEquals(5, village.getCitizens().size());
+        assertFalse(village.getCitizens().contains(unfed));
+        assertSame(last, village.getCitizens().get(4));
+    }
+
+    @Test
+    public void testStarvedIndex() {
+        village.getBuildings().clear();
+        assertEquals(-1, village.getStarvedIndex());
+        village.changeFood(-village.getTotalFood() + 7);
+        village.update();
+        assertEquals(4, village.getStarvedIndex());
+        village.changeFood(100);
+        village.update();
+        assertEquals(-1, village.getStarvedIndex());
 
+        village.changeFood(-village.getTotalFood());
+        assertEquals(1, village.advance(10));
+        assertEquals(0, village.getStarvedIndex());
+        village.advance(0);
+        assertEquals(0, village.getStarvedIndex());
+    }
 
+    @Test
+    public void testBatchedConsumptionLogsOnce() {
+        for (int i = 0; i < 1000; i++) {
+            village.addCitizen(new Citizen("Guest", false));
+        }
+        village.changeFood(1000000);
+        EventLog log = EventLog.newLog();
+        EventLog previous = EventLog.bind(log);
+        try {
+            village.update();
+        } finally {
+            EventLog.bind(previous);
+        }
+        int events = 0;
+        for (Event e : log) {
+            events++;
+        }
+        assertEquals(3, events);
+        assertEquals(20 + 1000000 + 3 - 2 * 1006, village.getTotalFood());
+    }
+
+    @Test
+    public void testOnlyStructuralEventsLogged() {
+        village.getBuildings().clear();
+        village.changeFood(-village.getTotalFood() + 7);
+        EventLog log = EventLog.newLog();
+        EventLog previous = EventLog.bind(log);
+        EventCategory.TURN.setSampling(EventCategory.OFF);
+        EventCategory.RESOURCES.setSampling(EventCategory.OFF);
+        EventCategory.WORKFORCE.setSampling(EventCategory.OFF);
+        try {
+            village.update();
+            village.changeFood(10);
+        } finally {
+            EventCategory.logAll();
+            EventLog.bind(previous);
+        }
+        Iterator<Event> events = log.iterator();
+        assertEquals(EventMessage.CITIZEN_STARVED, events.next().getMessage());
+        assertFalse(events.hasNext());
+    }
+
+    @Test
+    public void testRecordedCommands() {
+        List<Command> commands = new ArrayList<>();
+        village.setCommandListener(commands::add);
+        village.addCitizen(new Citizen("Ann", false));
+        village.hire(village.getCitizens().get(6), village.getBuildings().get(0));
+        village.renameBuilding(1, "Old Mill");
+        village.update();
+        village.setCommandListener(null);
+        village.update();
+
+        assertEquals(4, commands.size());
+        assertEquals(CommandType.ADD_CITIZEN, commands.get(0).getType());
+        assertEquals("Ann", commands.get(0).getName());
+        assertEquals(CommandType.HIRE, commands.get(1).getType());
+        assertEquals(6, commands.get(1).getFirst());
+        assertEquals(0, commands.get(1).getSecond());
+        assertEquals(CommandType.RENAME_BUILDING, commands.get(2).getType());
+        assertEquals(CommandType.END_TURN, commands.get(3).getType());
+    }
+
+    @Test
+    public void testRecordedPositionsFollowRemovals() {
+        List<Command> commands = new ArrayList<>();
+        village.setCommandListener(commands::add);
+        village.removeCitizen(0);
+        village.getBuildings().remove(0);
+        village.addCitizen(new Citizen("Ann", false));
+        Citizen ann = village.getCitizens().get(5);
+        Building mine = village.getBuildings().get(1);
+        village.hire(ann, mine);
+        village.fire(village.getBuildings().get(0));
+
+        Command hire = commands.get(2);
+        assertEquals(5, hire.getFirst());
+        assertEquals(1, hire.getSecond());
+        assertEquals(0, commands.get(3).getFirst());
+        assertEquals(5, village.getCitizens().indexOf(ann));
+        assertEquals(1, village.getBuildings().indexOf(mine));
+        assertEquals(-1, village.getBuildings().indexOf(new Building("Farm", "Farm 9")));
+    }
+
+    @Test
+    public void testReplayRebuildsVillage() {
+        List<Command> commands = new ArrayList<>();
+        village.setCommandListener(commands::add);
+        village.addCitizen(new Citizen("Ann", false));
+        village.addCitizen(new Citizen("Bob", false));
+        village.hire(village.getCitizens().get(7), village.getBuildings().get(0));
+        village.build(BuildingType.FARM, "Farm 2");
+        village.hire(village.getCitizens().get(3), village.getBuildings().get(3));
+        village.renameCitizen(3, "Cid");
+        village.fire(village.getBuildings().get(1));
+        village.removeCitizen(0);
+        village.changeFood(5);
+        village.update();
+        village.advance(4);
+
+        Village replayed = new Village();
+        for (Command command : commands) {
+            command.applyTo(replayed);
+        }
+        assertEquals(village.toJson().toString(), replayed.toJson().toString());
+        assertEquals(village.getUnemployed().size(), replayed.getUnemployed().size());
+        assertEquals(village.getProduction(Resource.FOOD), replayed.getProduction(Resource.FOOD));
+    }
+
+    @Test
+    public void testAdvanceRecordedOnce() {
+        List<Command> commands = new ArrayList<>();
+        village.getBuildings().clear();
+        village.setCommandListener(commands::add);
+        village.advance(10);
+        assertEquals(1, commands.size());
+        assertEquals(CommandType.ADVANCE, commands.get(0).getType());
+        assertEquals(10, commands.get(0).getFirst());
+    }
+
+    @Test
+    public void testSnapshotKeepsState() {
+        village.getBuildings().get(0).addWorker(new Citizen("Visitor", true));
+        village.renameCitizen(1, "Bea");
+        VillageSnapshot snapshot = village.snapshot();
+        int citizens = village.getCitizens().size();
+        int buildings = village.getBuildings().size();
+        village.removeCitizen(1);
+        village.renameCitizen(0, "Changed");
+        village.changeFood(-5);
+        village.getBuildings().clear();
+
+        assertEquals(citizens, snapshot.getCitizenCount());
+        assertEquals("Bea", snapshot.getName(snapshot.getCitizenName(1)));
+        assertNotEquals("Changed", snapshot.getName(snapshot.getCitizenName(0)));
+        assertEquals(20, snapshot.getTotalFood());
+        assertEquals(buildings, snapshot.getBuildingCount());
+        BuildingSnapshot building = snapshot.getBuilding(0);
+        int last = building.getWorkerCount() - 1;
+        assertEquals(-1, building.getWorker(last));
+        assertEquals("Visitor", building.getOutsiderName(last));
+        assertTrue(building.isOutsiderWorking(last));
+        for (int i = 0; i < last; i++) {
+            assertTrue(snapshot.isCitizenWorking(building.getWorker(i)));
+        }
+    }
+
+    @Test
+    public void testTurnCounted() {
+        assertEquals(0, village.getTurn());
+        village.update();
+        assertEquals(1, village.getTurn());
+        int played = village.advance(3);
+        assertEquals(1 + played, village.getTurn());
+        village.setTurn(10);
+        assertEquals(10, village.getTurn());
+        assertEquals(10, village.snapshot().getTurn());
+        assertEquals(10, village.toJson().getInt("turn"));
+    }
+
+    @Test
+    public void testCompactJsonFollowsEveryChange() throws IOException {
+        village.build("FARM", "Farm 1", 0, 0);
+        village.build("MINE", "Mine 1", 0, 0);
+        assertSameJson();
+        village.hire(village.getCitizens().get(3), village.getBuildings().get(3));
+        village.hire(village.getCitizens().get(5), village.getBuildings().get(4));
+        assertSameJson();
+        village.renameCitizen(5, "Renamed");
+        assertSameJson();
+        village.renameBuilding(4, "Quarry");
+        assertSameJson();
+        village.removeCitizen(1);
+        assertSameJson();
+        village.addCitizen(new Citizen("Renamed", false));
+        village.getCitizens().add(0, new Citizen("First", true));
+        assertSameJson();
+        village.fire(village.getBuildings().get(3));
+        village.getBuildings().get(4).setMaxWorkers(2);
+        assertSameJson();
+    }
+
+    //EFFECTS: checks that the compact streamed JSON of village matches toJson().
+    private void assertSameJson() throws IOException {
+        StringWriter text = new StringWriter();
+        village.writeJson(new JsonOutput(text, 0));
+        assertTrue(village.toJson().similar(new JSONObject(text.toString())), text.toString());
+    }
+
+    @Test
+    public void testDemolishedBuildingReleased() {
+        EmploymentRegistry registry = village.getCitizenTable().getEmployment();
+        assertEquals(3, registry.buildingCount());
+        Building farm = village.getBuildings().remove(0);
+        assertEquals(3, registry.buildingCount());
+        village.fire(farm);
+        assertEquals(2, registry.buildingCount());
+        village.fire(village.getBuildings().get(0));
+        assertEquals(1, registry.buildingCount());
+    }
+}
@@ -0,0 +1,85 @@
+package model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorldTest {
+    private ForkJoinPool pool;
+    private World world;
+
+    @BeforeEach
+    public void setUp() {
+        pool = new ForkJoinPool(4);
+        world = new World(pool);
+        for (int i = 0; i < 200; i++) {
+            world.addVillage();
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void testTickMatchesUpdate() {
+        Village expected = new Village();
+        expected.update();
+        world.tick();
+
+        assertEquals(200, world.size());
+        for (int i = 0; i < world.size(); i++) {
+            Village v = world.getVillage(i);
+            assertEquals(expected.getTotalFood(), v.getTotalFood());
+            assertEquals(expected.getTotalWood(), v.getTotalWood());
+            assertEquals(expected.getCitizens().size(), v.getCitizens().size());
+        }
+    }
+
+    @Test
+    public void testAdvance() {
+        Village expected = new Village();
+        expected.advance(100);
+        world.advance(100);
+        for (int i = 0; i < world.size(); i++) {
+            assertEquals(expected.getTotalStone(), world.getVillage(i).getTotalStone());
+            assertEquals(expected.getCitizens().size(), world.getVillage(i).getCitizens().size());
+        }
+    }
+
+    @Test
+    public void testEachVillageHasItsOwnLog() {
+        int global = count(EventLog.getInstance());
+        world.tick();
+        assertEquals(global, count(EventLog.getInstance()));
+
+        int perVillage = count(world.getEventLog(0));
+        assertTrue(perVillage > 0);
+        for (int i = 0; i < world.size(); i++) {
+            assertNotSame(EventLog.getInstance(), world.getEventLog(i));
+            assertEquals(perVillage, count(world.getEventLog(i)));
+        }
+    }
+
+    @Test
+    public void testAddExistingVillage() {
+        Village village = new Village();
+        world.addVillage(village);
+        world.tick();
+        assertSame(village, world.getVillage(200));
+        assertTrue(count(world.getEventLog(200)) > 0);
+    }
+
+    private int count(EventLog log) {
+        int n = 0;
+        for (Event e : log) {
+            n++;
+        }
+        return n;
+    }
+}
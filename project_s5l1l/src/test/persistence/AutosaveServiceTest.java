@@ -0,0 +1,97 @@
+package persistence;
+
+import model.Village;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AutosaveServiceTest extends JsonTest {
+    private Path dir;
+    private Path file;
+    private AutosaveService autosave;
+
+    @BeforeEach
+    public void runBefore() throws IOException {
+        dir = Files.createTempDirectory("testAutosave");
+        file = dir.resolve("autosave.sav");
+        autosave = new AutosaveService(file.toString(), 3);
+    }
+
+    @AfterEach
+    public void runAfter() throws IOException {
+        autosave.close();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path p : files) {
+                Files.delete(p);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    public void testSavesEveryIntervalTurns() throws IOException {
+        Village village = new Village();
+        assertFalse(autosave.turnEnded(village));
+        assertFalse(autosave.turnEnded(village));
+        autosave.flush();
+        assertFalse(Files.exists(file));
+
+        assertTrue(autosave.turnEnded(village));
+        autosave.flush();
+        assertTrue(Files.exists(file));
+        assertEquals(1, autosave.getSaveCount());
+        assertFalse(autosave.turnEnded(village));
+    }
+
+    @Test
+    public void testSavesStateWhenAsked() throws IOException {
+        Village village = new Village();
+        village.changeFood(-5);
+        autosave.save(village);
+        village.changeFood(-5);
+        village.getCitizens().clear();
+        autosave.flush();
+
+        Village read = SaveFormat.load(file.toString());
+        assertEquals(6, read.getCitizens().size());
+        checkVillageResources(15, 15, 15, read);
+    }
+
+    @Test
+    public void testReplacesSaveAndLeavesNoTemporaryFiles() throws IOException {
+        Village village = new Village();
+        autosave.save(village);
+        autosave.flush();
+        village.getCitizens().clear();
+        autosave.save(village);
+        autosave.flush();
+
+        assertTrue(SaveFormat.load(file.toString()).getCitizens().isEmpty());
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path p : files) {
+                assertEquals(file, p);
+            }
+        }
+    }
+
+    @Test
+    public void testFailedSaveKeepsError() {
+        autosave.close();
+        autosave = new AutosaveService(dir.resolve("missing").resolve("autosave.sav").toString(), 1);
+        autosave.save(new Village());
+        try {
+            autosave.flush();
+            fail();
+        } catch (IOException e) {
+            assertSame(e, autosave.getLastError());
+        }
+        assertEquals(0, autosave.getSaveCount());
+    }
+}
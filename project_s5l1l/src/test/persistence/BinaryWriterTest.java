@@ -0,0 +1,126 @@
+package persistence;
+
+import model.Building;
+import model.BuildingType;
+import model.Citizen;
+import model.Resource;
+import model.Village;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryWriterTest extends JsonTest {
+    private Path file;
+
+    @BeforeEach
+    public void runBefore() throws IOException {
+        file = Files.createTempFile("testBinary", ".sav");
+    }
+
+    @AfterEach
+    public void runAfter() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testIllegalFileName() {
+        try {
+            BinaryWriter writer = new BinaryWriter("./data/my\0illegal:fileName.sav");
+            writer.open();
+            fail();
+        } catch (IOException e) {
+            assertNotNull(e);
+        }
+    }
+
+    @Test
+    public void testEmptyVillage() throws IOException {
+        Village village = new Village();
+        village.getCitizens().clear();
+        village.getBuildings().clear();
+        village.changeFood(-village.getTotalFood());
+        SaveFormat.BINARY.write(village, file.toString());
+
+        Village read = new BinaryReader(file.toString()).read();
+        assertTrue(read.getCitizens().isEmpty());
+        assertTrue(read.getBuildings().isEmpty());
+        checkVillageResources(15, 0, 15, read);
+    }
+
+    @Test
+    public void testGeneralVillageKeepsWorkers() throws IOException {
+        Village village = foundedVillage()
+                .addCitizen("Ann", true)
+                .addBuilding(BuildingType.FARM.getLabel(), "Farm 2", 2)
+                .addWorker(6)
+                .addOutsider("Visitor", true)
+                .build();
+        village.changeFood(-100);
+        SaveFormat.BINARY.write(village, file.toString());
+
+        Village read = new BinaryReader(file.toString()).read();
+        assertEquals(7, read.getCitizens().size());
+        checkCitizen("Founder", true, read.getCitizens().get(0));
+        checkCitizen("Ann", true, read.getCitizens().get(6));
+        assertEquals(4, read.getBuildings().size());
+        checkBuilding("Farm 2", "Farm", 2, read.getBuildings().get(3));
+        checkVillageResources(village.getTotalWood(), 0, village.getTotalStone(), read);
+
+        Building readFarm = read.getBuildings().get(3);
+        assertEquals(2, readFarm.getNumWorkers());
+        assertTrue(readFarm.getWorkers().contains(read.getCitizens().get(6)));
+        assertEquals(3, read.getUnemployed().size());
+        assertEquals(village.getProduction(Resource.FOOD), read.getProduction(Resource.FOOD));
+        assertEquals(village.toJson().toString(), read.toJson().toString());
+    }
+
+    @Test
+    public void testTurnKeptAndVersionOneRead() throws IOException {
+        Village village = new Village();
+        village.setTurn(7);
+        SaveFormat.BINARY.write(village, file.toString());
+        assertEquals(7, new BinaryReader(file.toString()).read().getTurn());
+        SaveFormat.JSON.write(village, file.toString());
+        assertEquals(7, new JsonReader(file.toString()).read().getTurn());
+
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeInt(BinaryWriter.MAGIC);
+            out.writeByte(1);
+            out.write(new byte[] {0, 2, 4, 6, 0, 0});
+        }
+        Village read = new BinaryReader(file.toString()).read();
+        assertEquals(0, read.getTurn());
+        checkVillageResources(2, 1, 3, read);
+    }
+
+    @Test
+    public void testMuchSmallerThanJson() throws IOException {
+        Village village = new Village();
+        for (int i = 0; i < 20000; i++) {
+            village.addCitizen(new Citizen(i % 2 == 0 ? "Founder" : "Settler", false));
+        }
+        for (int i = 0; i < 1000; i++) {
+            Building mill = new Building(BuildingType.LUMBER_MILL, "Mill");
+            village.getBuildings().add(mill);
+            for (int j = 0; j < 5; j++) {
+                village.hire(village.findUnemployed(), mill);
+            }
+        }
+        Path json = Files.createTempFile("testBinaryJson", ".json");
+        try {
+            SaveFormat.JSON.write(village, json.toString());
+            SaveFormat.BINARY.write(village, file.toString());
+            assertTrue(Files.size(file) * 10 < Files.size(json), Files.size(file) + " vs " + Files.size(json));
+            assertEquals(village.toJson().toString(), SaveFormat.load(file.toString()).toJson().toString());
+        } finally {
+            Files.delete(json);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package persistence;
+
+import model.Citizen;
+import model.Command;
+import model.CommandType;
+import model.EventCategory;
+import model.Village;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CommandJournalTest {
+    private Path file;
+
+    @BeforeEach
+    public void runBefore() throws IOException {
+        file = Files.createTempFile("testCommands", ".journal");
+    }
+
+    @AfterEach
+    public void runAfter() throws IOException {
+        EventCategory.logAll();
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        CommandJournal journal = new CommandJournal(file.toString());
+        journal.open(false);
+        journal.commandApplied(new Command(CommandType.BUILD, 4, 1, "Farm", "Farm 2"));
+        journal.commandApplied(new Command(CommandType.CHANGE_RESOURCE, 0, -300, null, null));
+        journal.commandApplied(new Command(CommandType.END_TURN, 0, 0, null, null));
+        journal.close();
+
+        List<Command> commands = new CommandJournalReader(file.toString()).read();
+        assertEquals(3, commands.size());
+        Command build = commands.get(0);
+        assertEquals(CommandType.BUILD, build.getType());
+        assertEquals(4, build.getFirst());
+        assertEquals(1, build.getSecond());
+        assertEquals("Farm", build.getText());
+        assertEquals("Farm 2", build.getName());
+        assertEquals(-300, commands.get(1).getSecond());
+        assertNull(commands.get(1).getText());
+        assertEquals(CommandType.END_TURN, commands.get(2).getType());
+        assertEquals(CommandJournal.HEADER_SIZE + (4 + 6 + 8) + (2 + 2) + 2, Files.size(file));
+    }
+
+    @Test
+    public void testSize() throws IOException {
+        CommandJournal journal = new CommandJournal(file.toString());
+        journal.setFlushEach(false);
+        journal.open(false);
+        assertEquals(CommandJournal.HEADER_SIZE, journal.size());
+        journal.commandApplied(new Command(CommandType.END_TURN, 0, 0, null, null));
+        assertEquals(CommandJournal.HEADER_SIZE + 2, journal.size());
+        journal.close();
+        journal.open(true);
+        journal.commandApplied(new Command(CommandType.ADVANCE, 3, 0, null, null));
+        assertEquals(CommandJournal.HEADER_SIZE + 5, journal.size());
+        journal.close();
+        assertEquals(CommandJournal.HEADER_SIZE + 5, Files.size(file));
+    }
+
+    @Test
+    public void testFlushedEachUnlessTurnedOff() throws IOException {
+        CommandJournal journal = new CommandJournal(file.toString());
+        journal.open(false);
+        journal.commandApplied(new Command(CommandType.END_TURN, 0, 0, null, null));
+        assertEquals(CommandJournal.HEADER_SIZE + 2, Files.size(file));
+        journal.setFlushEach(false);
+        journal.commandApplied(new Command(CommandType.END_TURN, 0, 0, null, null));
+        assertEquals(CommandJournal.HEADER_SIZE + 2, Files.size(file));
+        journal.flush();
+        assertEquals(CommandJournal.HEADER_SIZE + 4, Files.size(file));
+        journal.close();
+    }
+
+    @Test
+    public void testAppendAndTruncatedCommand() throws IOException {
+        CommandJournal journal = new CommandJournal(file.toString());
+        journal.open(false);
+        journal.commandApplied(new Command(CommandType.ADVANCE, 3, 0, null, null));
+        journal.close();
+        journal.open(true);
+        journal.commandApplied(new Command(CommandType.RENAME_CITIZEN, 2, 0, null, "Ann"));
+        journal.close();
+        Files.write(file, new byte[] {(byte) CommandType.RENAME_CITIZEN.ordinal(), CommandJournal.NAME, 0, 9, 'B'},
+                StandardOpenOption.APPEND);
+
+        List<Command> commands = new CommandJournalReader(file.toString()).read();
+        assertEquals(2, commands.size());
+        assertEquals(3, commands.get(0).getFirst());
+        assertEquals("Ann", commands.get(1).getName());
+    }
+
+    @Test
+    public void testUnknownCommandType() throws IOException {
+        CommandJournal journal = new CommandJournal(file.toString());
+        journal.open(false);
+        journal.commandApplied(new Command(CommandType.END_TURN, 0, 0, null, null));
+        journal.close();
+        Files.write(file, new byte[] {(byte) 200, 0}, StandardOpenOption.APPEND);
+
+        assertThrows(IOException.class, () -> new CommandJournalReader(file.toString()).read());
+        assertThrows(IOException.class, () -> new CommandJournalReader(file.toString()).replay(new Village()));
+    }
+
+    @Test
+    public void testNotAJournal() throws IOException {
+        Files.write(file, new byte[] {'{', '}'});
+        try {
+            new CommandJournalReader(file.toString()).read();
+            fail();
+        } catch (IOException e) {
+            assertNotNull(e);
+        }
+    }
+
+    @Test
+    public void testReplayMillionCommands() throws IOException {
+        for (EventCategory category : EventCategory.values()) {
+            category.setSampling(EventCategory.OFF);
+        }
+        Village village = balancedVillage();
+        CommandJournal journal = new CommandJournal(file.toString());
+        journal.setFlushEach(false);
+        journal.open(false);
+        village.setCommandListener(journal);
+        for (int i = 0; i < 250000; i++) {
+            Citizen fired = village.fire(village.getBuildings().get(1));
+            village.hire(fired, village.getBuildings().get(1));
+            village.renameCitizen(i % 6, "Citizen " + (i % 100));
+            village.update();
+        }
+        journal.close();
+
+        Village replayed = balancedVillage();
+        long start = System.nanoTime();
+        int applied = new CommandJournalReader(file.toString()).replay(replayed);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        assertEquals(1000000, applied);
+        assertTrue(millis < 5000, "replay took " + millis + "ms");
+        assertEquals(village.toJson().toString(), replayed.toJson().toString());
+    }
+
+    // EFFECTS: returns a new village with every founder working, three of them on the farm,
+    // so food stays level turn after turn
+    private Village balancedVillage() {
+        Village village = new Village();
+        for (int i = 0; i < 3; i++) {
+            village.hire(village.findUnemployed(), village.getBuildings().get(0));
+        }
+        return village;
+    }
+}
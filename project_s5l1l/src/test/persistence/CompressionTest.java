@@ -0,0 +1,89 @@
+package persistence;
+
+import model.Citizen;
+import model.EventCategory;
+import model.Village;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompressionTest extends JsonTest {
+    private Path file;
+
+    @BeforeEach
+    public void runBefore() throws IOException {
+        file = Files.createTempFile("testCompression", ".json");
+    }
+
+    @AfterEach
+    public void runAfter() throws IOException {
+        EventCategory.logAll();
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testDetectLeavesStreamInPlace() throws IOException {
+        for (Compression compression : Compression.values()) {
+            write(new Village(), compression, Compression.DEFAULT_LEVEL);
+            try (BufferedInputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+                assertEquals(compression, Compression.detect(in));
+                assertEquals(Files.readAllBytes(file)[0] & 0xff, in.read());
+            }
+        }
+        BufferedInputStream empty = new BufferedInputStream(new ByteArrayInputStream(new byte[0]));
+        assertEquals(Compression.NONE, Compression.detect(empty));
+    }
+
+    @Test
+    public void testReadCompressed() throws IOException {
+        Village village = new Village();
+        village.addCitizen(new Citizen("Ann", false));
+        village.changeFood(-7);
+        for (Compression compression : Compression.values()) {
+            write(village, compression, 9);
+            Village read = new JsonReader(file.toString()).read();
+            assertEquals(7, read.getCitizens().size());
+            checkCitizen("Ann", false, read.getCitizens().get(6));
+            checkVillageResources(15, 13, 15, read);
+            assertEquals(SaveFormat.JSON, SaveFormat.detect(file.toString()));
+        }
+    }
+
+    @Test
+    public void testLargeVillageTradeOff() throws IOException {
+        for (EventCategory category : EventCategory.values()) {
+            category.setSampling(EventCategory.OFF);
+        }
+        Village village = new Village();
+        for (int i = 0; i < 50000; i++) {
+            village.addCitizen(new Citizen("Citizen " + (i % 500), i % 3 == 0));
+        }
+        write(village, Compression.NONE, Compression.DEFAULT_LEVEL);
+        long plain = Files.size(file);
+        for (Compression compression : new Compression[] {Compression.GZIP, Compression.DEFLATE}) {
+            for (int level : new int[] {1, 6, 9}) {
+                write(village, compression, level);
+                Village read = new JsonReader(file.toString()).read();
+                long size = Files.size(file);
+                assertEquals(village.getCitizens().size(), read.getCitizens().size());
+                assertTrue(size * 10 < plain, compression + " level " + level + " wrote " + size + " bytes");
+            }
+        }
+    }
+
+    // EFFECTS: writes village to file as JSON compressed with compression at level
+    private void write(Village village, Compression compression, int level) throws IOException {
+        JsonWriter writer = new JsonWriter(file.toString(), compression, level);
+        writer.open();
+        writer.write(village);
+        writer.close();
+    }
+}
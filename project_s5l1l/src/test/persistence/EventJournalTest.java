@@ -0,0 +1,147 @@
+package persistence;
+
+import model.Event;
+import model.EventMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventJournalTest {
+    private Path file;
+
+    @BeforeEach
+    public void runBefore() throws IOException {
+        file = Files.createTempFile("testJournal", ".journal");
+        Files.delete(file);
+    }
+
+    @AfterEach
+    public void runAfter() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        Event plain = new Event("Village founded");
+        Event fed = new Event(EventMessage.CITIZENS_FED, 6, 14);
+        EventJournal journal = new EventJournal(file.toString());
+        journal.open();
+        journal.eventLogged(plain);
+        journal.eventLogged(fed);
+        journal.close();
+        assertEquals(2, journal.getWrittenCount());
+
+        List<JournalEntry> entries = new EventJournalReader(file.toString()).read();
+        assertEquals(2, entries.size());
+        assertEquals("Village founded", entries.get(0).getDescription());
+        assertNull(entries.get(0).getMessage());
+        assertEquals(plain.getTimestamp(), entries.get(0).getTimestamp());
+        assertEquals(plain.getDate(), entries.get(0).getDate());
+        assertEquals(EventMessage.CITIZENS_FED, entries.get(1).getMessage());
+        assertEquals("6 citizens were able to eat, Total Food is now: 14", entries.get(1).getDescription());
+        assertEquals(plain.toString(), entries.get(0).toString());
+    }
+
+    @Test
+    public void testManyEventsAndAppend() throws IOException {
+        EventJournal journal = new EventJournal(file.toString());
+        journal.open();
+        for (int i = 0; i < 20000; i++) {
+            journal.eventLogged(new Event("Event " + i));
+        }
+        journal.close();
+        journal.eventLogged(new Event("Too late"));
+
+        EventJournal again = new EventJournal(file.toString());
+        again.open();
+        again.eventLogged(new Event("Event 20000"));
+        again.close();
+
+        List<JournalEntry> entries = new EventJournalReader(file.toString()).read();
+        assertEquals(20001, entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            assertEquals("Event " + i, entries.get(i).getDescription());
+        }
+    }
+
+    @Test
+    public void testTruncatedRecordIgnored() throws IOException {
+        EventJournal journal = new EventJournal(file.toString());
+        journal.open();
+        journal.eventLogged(new Event("Kept"));
+        journal.close();
+        Files.write(file, new byte[] {0, 0, 0, 40, 1, 2}, StandardOpenOption.APPEND);
+
+        List<JournalEntry> entries = new EventJournalReader(file.toString()).read();
+        assertEquals(1, entries.size());
+        assertEquals("Kept", entries.get(0).getDescription());
+    }
+
+    @Test
+    public void testArgumentsStoredNotDescription() throws IOException {
+        EventJournal journal = new EventJournal(file.toString());
+        journal.open();
+        journal.eventLogged(new Event(EventMessage.RENAMED, "Ann", "Zo\u00e9"));
+        journal.eventLogged(new Event(EventMessage.WORKER_ADDED, "Farm 1", null));
+        journal.eventLogged(new Event(EventMessage.TURN_ENDED, null, null));
+        journal.close();
+
+        List<JournalEntry> entries = new EventJournalReader(file.toString()).read();
+        assertEquals("Ann was renamed to Zo\u00e9", entries.get(0).getDescription());
+        assertEquals(EventMessage.RENAMED, entries.get(0).getMessage());
+        assertEquals("A worker was added to Farm 1", entries.get(1).getDescription());
+        assertEquals("Village updated for next turn", entries.get(2).getDescription());
+        String bytes = new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1);
+        assertFalse(bytes.contains("renamed"));
+        assertFalse(bytes.contains("next turn"));
+    }
+
+    @Test
+    public void testCloseWithoutOpen() throws IOException {
+        EventJournal journal = new EventJournal(file.toString());
+        journal.close();
+        assertEquals(0, journal.getWrittenCount());
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    public void testOpenRejectsOtherFile() throws IOException {
+        Files.write(file, new byte[] {'{', '}'});
+        EventJournal journal = new EventJournal(file.toString());
+        assertThrows(IOException.class, journal::open);
+        journal.close();
+        assertEquals(2, Files.size(file));
+    }
+
+    @Test
+    public void testUnknownMessageRejected() throws IOException {
+        EventJournal journal = new EventJournal(file.toString());
+        journal.open();
+        journal.close();
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + 18);
+        record.putInt(18).putLong(0).put((byte) 120).put(EventJournal.NUMBERS).putInt(1).putInt(2);
+        Files.write(file, record.array(), StandardOpenOption.APPEND);
+        assertThrows(IOException.class, () -> new EventJournalReader(file.toString()).read());
+    }
+
+    @Test
+    public void testNotAJournal() throws IOException {
+        Files.write(file, new byte[] {'{', '}'});
+        try {
+            new EventJournalReader(file.toString()).read();
+            fail();
+        } catch (IOException e) {
+            assertNotNull(e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package persistence;
+
+import model.Building;
+import model.BuildingType;
+import model.Village;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonOutputTest extends JsonTest {
+
+    @Test
+    public void testCompact() throws IOException {
+        StringWriter text = new StringWriter();
+        new JsonOutput(text, 0).beginObject()
+                .name("a").value(1)
+                .name("b").beginArray().value(true).value("x").beginObject().endObject().endArray()
+                .name("c").beginArray().endArray()
+                .endObject();
+        assertEquals("{\"a\":1,\"b\":[true,\"x\",{}],\"c\":[]}", text.toString());
+    }
+
+    @Test
+    public void testIndented() throws IOException {
+        StringWriter text = new StringWriter();
+        new JsonOutput(text, 2).beginObject()
+                .name("a").beginArray().value(1).value(2).endArray()
+                .name("b").beginObject().endObject()
+                .endObject();
+        assertEquals("{\n  \"a\": [\n    1,\n    2\n  ],\n  \"b\": {}\n}", text.toString());
+    }
+
+    @Test
+    public void testEscaping() throws IOException {
+        String s = "say \"hi\"\\ \n\t\r\u0001 \u00e9";
+        StringWriter text = new StringWriter();
+        new JsonOutput(text, 0).beginObject().name(s).value(s).endObject();
+        JSONObject json = new JSONObject(text.toString());
+        assertEquals(s, json.getString(s));
+    }
+
+    @Test
+    public void testSameAsToJson() throws IOException {
+        Village village = foundedVillage()
+                .addCitizen("Ann \"the\" Bold", true)
+                .addBuilding(BuildingType.FARM.getLabel(), "Farm 2", Building.DEFAULT_MAX_WORKERS)
+                .addWorker(6)
+                .addOutsider("Visitor", true)
+                .setTurn(3)
+                .build();
+        for (int indent : new int[] {0, 4}) {
+            StringWriter text = new StringWriter();
+            village.writeJson(new JsonOutput(text, indent));
+            assertTrue(village.toJson().similar(new JSONObject(text.toString())));
+        }
+        Building mill = village.getBuildings().get(1);
+        StringWriter text = new StringWriter();
+        new JsonOutput(text, 0).value(mill);
+        assertTrue(mill.toJson().similar(new JSONObject(text.toString())));
+    }
+}
@@ -1,9 +1,18 @@
 package persistence;
 
+import model.Building;
+import model.BuildingType;
+import model.Resource;
 import model.Village;
 import org.junit.jupiter.api.Test;
 
+import org.json.JSONException;
+
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -50,4 +59,96 @@ public class JsonReaderTest extends JsonTest {
         }
     }
 
+    @Test
+    public void testFieldsInAnyOrderAndUnknownFieldsSkipped() throws IOException {
+        Path file = Files.createTempFile("testReaderOrder", ".json");
+        try {
+            Files.write(file, ("{ \"totalFood\" : 7, \"notes\": {\"n\": [1, 2, {}]}, \"citizens\": [ ],\n"
+                    + "\"buildings\":[{\"name\":\"Mill\",\"type\":\"Lumber Mill\",\"maxWorkers\":5,"
+                    + "\"workers\":[]}], \"totalWood\": 3, \"totalStone\": 4 }").getBytes(StandardCharsets.UTF_8));
+            Village village = new JsonReader(file.toString()).read();
+            assertTrue(village.getCitizens().isEmpty());
+            assertEquals(1, village.getBuildings().size());
+            checkVillageResources(3, 7, 4, village);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testLargeVillage() throws IOException {
+        Path file = Files.createTempFile("testReaderLarge", ".json");
+        try (Writer out = Files.newBufferedWriter(file)) {
+            out.write("{\"citizens\": [");
+            for (int i = 0; i < 200000; i++) {
+                out.write((i == 0 ? "" : ",") + "{\"name\": \"Citizen " + i + "\", \"isWorking\": false}");
+            }
+            out.write("], \"buildings\": [], \"totalWood\": 1, \"totalStone\": 2, \"totalFood\": 3}");
+        }
+        try {
+            Village village = new JsonReader(file.toString()).read();
+            assertEquals(200000, village.getCitizens().size());
+            checkCitizen("Citizen 199999", false, village.getCitizens().get(199999));
+            checkVillageResources(1, 3, 2, village);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testMalformedFile() throws IOException {
+        Path file = Files.createTempFile("testReaderBad", ".json");
+        try {
+            Files.write(file, "{\"citizens\": [{\"name\": \"A\", \"isWorking\": true} {}]}".getBytes());
+            new JsonReader(file.toString()).read();
+            fail("expected JSONException");
+        } catch (JSONException e) {
+            // expected
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testWorkersRestored() throws IOException {
+        Path file = Files.createTempFile("testReaderWorkers", ".json");
+        try {
+            Village village = foundedVillage()
+                    .addBuilding(BuildingType.LUMBER_MILL.getLabel(), "Mill 2", 8)
+                    .build();
+            village.hire(village.findUnemployed(), village.getBuildings().get(3));
+            SaveFormat.JSON.write(village, file.toString());
+
+            Village read = new JsonReader(file.toString()).read();
+            assertEquals(8, read.getBuildings().get(3).getMaxWorkers());
+            for (int i = 0; i < 4; i++) {
+                Building b = village.getBuildings().get(i);
+                assertEquals(b.getNumWorkers(), read.getBuildings().get(i).getNumWorkers());
+            }
+            assertTrue(read.getBuildings().get(0).getWorkers().contains(read.getCitizens().get(0)));
+            assertEquals(village.getUnemployed().size(), read.getUnemployed().size());
+            assertEquals(village.getProduction(Resource.WOOD), read.getProduction(Resource.WOOD));
+            assertEquals(village.toJson().toString(), read.toJson().toString());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testWorkersWithoutPositionMatchedByName() throws IOException {
+        Path file = Files.createTempFile("testReaderLegacy", ".json");
+        try {
+            Files.write(file, ("{\"citizens\": [{\"name\": \"Ann\", \"isWorking\": true},"
+                    + "{\"name\": \"Bob\", \"isWorking\": false}], \"buildings\": [{\"name\": \"Farm 1\","
+                    + "\"type\": \"Farm\", \"maxWorkers\": 3,"
+                    + "\"workers\": [{\"name\": \"Ann\", \"isWorking\": true}]}],"
+                    + "\"totalWood\": 1, \"totalStone\": 2, \"totalFood\": 3}").getBytes(StandardCharsets.UTF_8));
+            Village read = new JsonReader(file.toString()).read();
+            assertEquals(3, read.getBuildings().get(0).getMaxWorkers());
+            assertTrue(read.getBuildings().get(0).getWorkers().contains(read.getCitizens().get(0)));
+            assertEquals(3, read.getProduction(Resource.FOOD));
+        } finally {
+            Files.delete(file);
+        }
+    }
 }
@@ -1,8 +1,11 @@
 package persistence;
 
 import model.Building;
+import model.BuildingType;
 import model.Citizen;
+import model.Resource;
 import model.Village;
+import model.VillageBuilder;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -26,4 +29,18 @@ public class JsonTest {
         assertEquals(totalStone, village.getTotalStone());
 
     }
+
+    // EFFECTS: returns a builder holding what new Village() starts with, six founders with the first three working
+    // in Farm 1, Mill 1 and Mine 1, and 20 food, 15 wood and 15 stone, for tests to add what the game cannot
+    protected VillageBuilder foundedVillage() {
+        VillageBuilder village = new VillageBuilder();
+        village.setTotal(Resource.FOOD, 20).setTotal(Resource.WOOD, 15).setTotal(Resource.STONE, 15);
+        for (int i = 0; i < 6; i++) {
+            village.addCitizen("Founder", i < 3);
+        }
+        village.addBuilding(BuildingType.FARM.getLabel(), "Farm 1", Building.DEFAULT_MAX_WORKERS).addWorker(0);
+        village.addBuilding(BuildingType.LUMBER_MILL.getLabel(), "Mill 1", Building.DEFAULT_MAX_WORKERS).addWorker(1);
+        village.addBuilding(BuildingType.MINE.getLabel(), "Mine 1", Building.DEFAULT_MAX_WORKERS).addWorker(2);
+        return village;
+    }
 }
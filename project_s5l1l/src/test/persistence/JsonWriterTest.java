@@ -1,9 +1,14 @@
 package persistence;
 
+import model.Resource;
 import model.Village;
+import model.VillageBuilder;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -70,4 +75,31 @@ public class JsonWriterTest extends JsonTest {
         }
     }
 
+
+    @Test
+    public void testCompactMillionCitizens() throws IOException {
+        VillageBuilder builder = new VillageBuilder().setTotal(Resource.FOOD, 5);
+        for (int i = 0; i < 1000000; i++) {
+            builder.addCitizen("Citizen " + (i % 1000), i % 2 == 0);
+        }
+        Village village = builder.build();
+        Path file = Files.createTempFile("testWriterCompact", ".json");
+        try {
+            JsonWriter writer = new JsonWriter(file.toString());
+            writer.setCompact(true);
+            writer.open();
+            writer.write(village);
+            writer.close();
+            String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            assertTrue(json.startsWith("{\"citizens\":[{\"name\":\"Citizen 0\",\"isWorking\":true},"));
+            assertFalse(json.contains("\n"));
+
+            Village read = new JsonReader(file.toString()).read();
+            assertEquals(1000000, read.getCitizens().size());
+            checkCitizen("Citizen 999", false, read.getCitizens().get(999999));
+            assertEquals(5, read.getTotalFood());
+        } finally {
+            Files.delete(file);
+        }
+    }
 }
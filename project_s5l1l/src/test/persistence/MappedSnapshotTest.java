@@ -0,0 +1,116 @@
+package persistence;
+
+import model.Building;
+import model.BuildingType;
+import model.Citizen;
+import model.Village;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedSnapshotTest extends JsonTest {
+    private Path file;
+    private Village village;
+
+    @BeforeEach
+    public void runBefore() throws IOException {
+        file = Files.createTempFile("testMapped", ".snap");
+        village = foundedVillage()
+                .addCitizen("Zo\u00e9", true)
+                .addBuilding(BuildingType.FARM.getLabel(), "Farm 2", Building.DEFAULT_MAX_WORKERS)
+                .addWorker(6)
+                .addOutsider("Visitor", true)
+                .setTurn(12)
+                .build();
+        SaveFormat.MAPPED.write(village, file.toString());
+    }
+
+    @AfterEach
+    public void runAfter() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testReadInPlace() throws IOException {
+        try (MappedSnapshot snapshot = MappedSnapshot.open(file.toString())) {
+            assertEquals(12, snapshot.getTurn());
+            assertEquals(village.getTotalFood(), snapshot.getTotalFood());
+            assertEquals(village.getTotalWood(), snapshot.getTotalWood());
+            assertEquals(village.getTotalStone(), snapshot.getTotalStone());
+            assertEquals(7, snapshot.getCitizenCount());
+            assertEquals("Zo\u00e9", snapshot.getCitizenName(6));
+            assertTrue(snapshot.isCitizenWorking(6));
+            assertFalse(snapshot.isCitizenWorking(5));
+            assertEquals(4, snapshot.getBuildingCount());
+            assertEquals("Farm 2", snapshot.getBuildingName(3));
+            assertEquals("Farm", snapshot.getBuildingType(3));
+            assertEquals(5, snapshot.getMaxWorkers(3));
+            assertEquals(2, snapshot.getWorkerCount(3));
+            assertEquals(6, snapshot.getWorker(3, 0));
+            assertEquals(-1, snapshot.getWorker(3, 1));
+            assertEquals("Visitor", snapshot.getOutsiderName(3, 1));
+            assertTrue(snapshot.isOutsiderWorking(3, 1));
+            assertEquals(0, snapshot.getWorker(0, 0));
+        }
+    }
+
+    @Test
+    public void testToVillage() throws IOException {
+        assertEquals(SaveFormat.MAPPED, SaveFormat.detect(file.toString()));
+        Village read = SaveFormat.load(file.toString());
+        assertTrue(village.toJson().similar(read.toJson()));
+        assertTrue(read.getBuildings().get(3).getWorkers().contains(read.getCitizens().get(6)));
+    }
+
+    @Test
+    public void testReadsAcrossSegments() throws IOException {
+        for (int shift = 4; shift <= 7; shift++) {
+            try (MappedSnapshot snapshot = MappedSnapshot.open(file.toString(), shift)) {
+                assertEquals("Zo\u00e9", snapshot.getCitizenName(6));
+                assertEquals("Visitor", snapshot.getOutsiderName(3, 1));
+                assertTrue(village.toJson().similar(snapshot.toVillage().toJson()));
+            }
+        }
+    }
+
+    @Test
+    public void testNotASnapshot() throws IOException {
+        Files.write(file, new byte[] {'{', '}'});
+        assertThrows(IOException.class, () -> MappedSnapshot.open(file.toString()));
+        SaveFormat.BINARY.write(village, file.toString());
+        assertThrows(IOException.class, () -> MappedSnapshot.open(file.toString()));
+    }
+
+    @Test
+    public void testCutShort() throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> MappedSnapshot.open(file.toString()));
+        Files.write(file, Arrays.copyOf(bytes, MappedSnapshotWriter.HEADER_SIZE));
+        assertThrows(IOException.class, () -> MappedSnapshot.open(file.toString()));
+    }
+
+    @Test
+    public void testOpenDoesNotDecodeCitizens() throws IOException {
+        Village large = new Village();
+        for (int i = 0; i < 1000000; i++) {
+            large.addCitizen(new Citizen("Settler " + i, false));
+        }
+        SaveFormat.MAPPED.write(large, file.toString());
+
+        long start = System.nanoTime();
+        try (MappedSnapshot snapshot = MappedSnapshot.open(file.toString())) {
+            assertEquals("Settler 999999", snapshot.getCitizenName(1000005));
+            assertEquals("Founder", snapshot.getCitizenName(0));
+            long millis = (System.nanoTime() - start) / 1000000;
+            assertTrue(millis < 200, "opening took " + millis + "ms");
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package persistence;
+
+import model.Village;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SaveFormatTest extends JsonTest {
+    private Path file;
+
+    @BeforeEach
+    public void runBefore() throws IOException {
+        file = Files.createTempFile("testFormat", ".sav");
+    }
+
+    @AfterEach
+    public void runAfter() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testDetect() throws IOException {
+        assertEquals(SaveFormat.JSON, SaveFormat.detect("./data/StandardVillage.json"));
+        SaveFormat.BINARY.write(new Village(), file.toString());
+        assertEquals(SaveFormat.BINARY, SaveFormat.detect(file.toString()));
+        SaveFormat.MAPPED.write(new Village(), file.toString());
+        assertEquals(SaveFormat.MAPPED, SaveFormat.detect(file.toString()));
+        Files.write(file, new byte[] {'{'});
+        assertEquals(SaveFormat.JSON, SaveFormat.detect(file.toString()));
+    }
+
+    @Test
+    public void testLoadEitherFormat() throws IOException {
+        Village json = SaveFormat.load("./data/StandardVillage.json");
+        SaveFormat.BINARY.write(json, file.toString());
+        Village binary = SaveFormat.load(file.toString());
+        assertEquals(2, binary.getCitizens().size());
+        checkCitizen("Tommy", true, binary.getCitizens().get(0));
+        checkBuilding("Farm 1", "FARM", 5, binary.getBuildings().get(0));
+        checkVillageResources(20, 20, 20, binary);
+    }
+
+    @Test
+    public void testUnknownVersion() throws IOException {
+        SaveFormat.BINARY.write(new Village(), file.toString());
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[4] = 99;
+        Files.write(file, bytes);
+        try {
+            SaveFormat.load(file.toString());
+            fail("expected IOException");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("99"));
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package persistence;
+
+import model.Citizen;
+import model.EventCategory;
+import model.Village;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SaveSlotsTest extends JsonTest {
+    private Path dir;
+    private SaveSlots slots;
+
+    @BeforeEach
+    public void runBefore() throws IOException {
+        dir = Files.createTempDirectory("testSlots");
+        slots = new SaveSlots(dir.resolve("slots").toString());
+    }
+
+    @AfterEach
+    public void runAfter() throws IOException {
+        EventCategory.logAll();
+        deleteAll(dir);
+    }
+
+    @Test
+    public void testValidName() {
+        assertTrue(SaveSlots.isValidName("Slot 1"));
+        assertTrue(SaveSlots.isValidName("before-winter_2"));
+        assertFalse(SaveSlots.isValidName(""));
+        assertFalse(SaveSlots.isValidName(null));
+        assertFalse(SaveSlots.isValidName("../escape"));
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        assertTrue(slots.list().isEmpty());
+        Village village = new Village();
+        village.addCitizen(new Citizen("Ann", false));
+        village.update();
+        village.advance(2);
+        SlotHeader header = slots.save("first", village);
+        assertEquals("first", header.getName());
+        assertTrue(village.getTurn() > 1);
+        assertEquals(village.getTurn(), header.getTurn());
+        assertEquals(village.getCitizens().size(), header.getPopulation());
+        assertEquals(village.getTotalFood(), header.getTotalFood());
+
+        Village loaded = slots.load("first");
+        assertEquals(village.getTurn(), loaded.getTurn());
+        assertEquals(village.getCitizens().size(), loaded.getCitizens().size());
+        for (int i = 0; i < village.getCitizens().size(); i++) {
+            Citizen c = village.getCitizens().get(i);
+            checkCitizen(c.getName(), c.isWorking(), loaded.getCitizens().get(i));
+        }
+        checkVillageResources(village.getTotalWood(), village.getTotalFood(), village.getTotalStone(), loaded);
+        assertEquals(village.getBuildings().get(0).getNumWorkers(), loaded.getBuildings().get(0).getNumWorkers());
+    }
+
+    @Test
+    public void testListReadsHeadersNewestFirst() throws IOException, InterruptedException {
+        Village village = new Village();
+        slots.save("old", village);
+        village.getCitizens().clear();
+        Thread.sleep(5);
+        slots.save("new", village);
+        Thread.sleep(5);
+        slots.save("old", new Village());
+        Files.write(dir.resolve("slots").resolve("junk.slot"), new byte[] {1, 2, 3});
+
+        List<SlotHeader> headers = slots.list();
+        assertEquals(2, headers.size());
+        assertEquals("old", headers.get(0).getName());
+        assertEquals(6, headers.get(0).getPopulation());
+        assertEquals("new", headers.get(1).getName());
+        assertEquals(0, headers.get(1).getPopulation());
+        assertTrue(headers.get(1).toString().startsWith("new - turn 0, 0 citizens"));
+
+        assertTrue(slots.delete("new"));
+        assertFalse(slots.delete("new"));
+        assertEquals(1, slots.list().size());
+    }
+
+    @Test
+    public void testDamagedSlot() throws IOException {
+        slots.save("slot", new Village());
+        try (RandomAccessFile file = new RandomAccessFile(dir.resolve("slots").resolve("slot.slot").toFile(), "rw")) {
+            file.seek(file.length() - 1);
+            int last = file.read();
+            file.seek(file.length() - 1);
+            file.write(last ^ 1);
+        }
+        try {
+            slots.load("slot");
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("checksum"));
+        }
+        try {
+            slots.load("missing");
+            fail();
+        } catch (IOException e) {
+            assertNotNull(e);
+        }
+    }
+
+    @Test
+    public void testDamagedBeforeEnd() throws IOException {
+        slots.save("slot", new Village());
+        Path file = dir.resolve("slots").resolve("slot.slot");
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[SaveSlots.HEADER_SIZE] ^= 1;
+        Files.write(file, bytes);
+        IOException e = assertThrows(IOException.class, () -> slots.load("slot"));
+        assertTrue(e.getMessage().contains("checksum"));
+    }
+
+    @Test
+    public void testListHundredsOfSlotsQuickly() throws IOException {
+        for (EventCategory category : EventCategory.values()) {
+            category.setSampling(EventCategory.OFF);
+        }
+        Village village = new Village();
+        for (int i = 0; i < 2000; i++) {
+            village.addCitizen(new Citizen("Citizen " + i, false));
+        }
+        for (int i = 0; i < 300; i++) {
+            slots.save("slot " + i, village);
+        }
+        slots.list();
+        long start = System.nanoTime();
+        List<SlotHeader> headers = slots.list();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        assertEquals(300, headers.size());
+        assertTrue(millis < 500, "listing took " + millis + "ms");
+    }
+
+    // EFFECTS: deletes path and everything under it
+    private void deleteAll(Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(path)) {
+                for (Path p : files) {
+                    deleteAll(p);
+                }
+            }
+        }
+        Files.delete(path);
+    }
+}
@@ -0,0 +1,174 @@
+package persistence;
+
+import model.Citizen;
+import model.Village;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VillageStoreTest {
+    private Path snapshot;
+    private Path journal;
+
+    @BeforeEach
+    public void runBefore() throws IOException {
+        snapshot = Files.createTempFile("testStore", ".json");
+        journal = Files.createTempFile("testStore", ".journal");
+        Files.delete(journal);
+    }
+
+    @AfterEach
+    public void runAfter() throws IOException {
+        Files.deleteIfExists(snapshot);
+        Files.deleteIfExists(journal);
+    }
+
+    @Test
+    public void testLoadReplaysActionsSinceSave() throws IOException {
+        VillageStore store = new VillageStore(snapshot.toString(), journal.toString());
+        Village village = new Village();
+        village.getBuildings().clear();
+        store.save(village);
+        long snapshotSize = Files.size(snapshot);
+        village.addCitizen(new Citizen("Ann", false));
+        village.renameCitizen(0, "Elder");
+        village.update();
+        store.close();
+        assertEquals(snapshotSize, Files.size(snapshot));
+
+        Village loaded = new VillageStore(snapshot.toString(), journal.toString()).load();
+        assertEquals(village.getCitizens().size(), loaded.getCitizens().size());
+        assertEquals("Elder", loaded.getCitizens().get(0).getName());
+        assertEquals("Ann", loaded.getCitizens().get(6).getName());
+        assertEquals(village.getTotalFood(), loaded.getTotalFood());
+        assertEquals(village.getTotalWood(), loaded.getTotalWood());
+        assertEquals(village.getTotalStone(), loaded.getTotalStone());
+    }
+
+    @Test
+    public void testLoadKeepsEveryActionWithoutClose() throws IOException {
+        VillageStore store = new VillageStore(snapshot.toString(), journal.toString());
+        Village village = new Village();
+        store.save(village);
+        village.advance(3);
+
+        VillageStore other = new VillageStore(snapshot.toString(), journal.toString());
+        assertEquals(3, other.load().getTurn());
+        other.close();
+        Village reloaded = store.load();
+        assertEquals(3, reloaded.getTurn());
+        store.close();
+    }
+
+    @Test
+    public void testCloseStopsRecording() throws IOException {
+        VillageStore store = new VillageStore(snapshot.toString(), journal.toString());
+        Village village = new Village();
+        store.save(village);
+        store.close();
+        village.renameCitizen(0, "Elder");
+        village.update();
+
+        assertTrue(new CommandJournalReader(journal.toString()).read().isEmpty());
+        assertEquals("Founder", new VillageStore(snapshot.toString(), journal.toString()).load()
+                .getCitizens().get(0).getName());
+    }
+
+    @Test
+    public void testJournalOfOlderSnapshotNotReplayed() throws IOException {
+        VillageStore store = new VillageStore(snapshot.toString(), journal.toString());
+        Village village = new Village();
+        store.save(village);
+        village.changeFood(5);
+        byte[] olderJournal = Files.readAllBytes(journal);
+        store.save(village);
+        store.close();
+        Files.write(journal, olderJournal);
+
+        Village loaded = new VillageStore(snapshot.toString(), journal.toString()).load();
+        assertEquals(village.getTotalFood(), loaded.getTotalFood());
+        assertTrue(new CommandJournalReader(journal.toString()).read().isEmpty());
+        try (Stream<Path> files = Files.list(snapshot.getParent())) {
+            String name = snapshot.getFileName().toString();
+            assertFalse(files.anyMatch(f -> f.getFileName().toString().startsWith(name)
+                    && f.toString().endsWith(".tmp")));
+        }
+    }
+
+    @Test
+    public void testSaveStartsEmptyJournal() throws IOException {
+        VillageStore store = new VillageStore(snapshot.toString(), journal.toString());
+        store.save(new Village());
+        Village village = store.load();
+        village.addCitizen(new Citizen("Ann", false));
+        store.save(village);
+        village.addCitizen(new Citizen("Bob", false));
+        store.close();
+
+        Village loaded = new VillageStore(snapshot.toString(), journal.toString()).load();
+        assertEquals(village.getCitizens().size(), loaded.getCitizens().size());
+        assertEquals(1, new CommandJournalReader(journal.toString()).read().size());
+    }
+
+    @Test
+    public void testBinarySnapshotReplaysExactly() throws IOException {
+        VillageStore store = new VillageStore(snapshot.toString(), journal.toString(), SaveFormat.BINARY);
+        Village village = new Village();
+        store.save(village);
+        village.hire(village.findUnemployed(), village.getBuildings().get(0));
+        village.fire(village.getBuildings().get(1));
+        village.advance(3);
+        store.close();
+
+        assertEquals(SaveFormat.BINARY, SaveFormat.detect(snapshot.toString()));
+        Village loaded = new VillageStore(snapshot.toString(), journal.toString()).load();
+        assertEquals(village.toJson().toString(), loaded.toJson().toString());
+    }
+
+    @Test
+    public void testSaveFlushesJournalUntilCompaction() throws IOException {
+        VillageStore store = new VillageStore(snapshot.toString(), journal.toString(), SaveFormat.BINARY);
+        store.setCompactionRatio(1.0);
+        Village village = new Village();
+        assertTrue(store.save(village));
+        long snapshotSize = Files.size(snapshot);
+        village.renameCitizen(0, "Elder");
+        assertFalse(store.save(village));
+        assertEquals(snapshotSize, Files.size(snapshot));
+
+        Village loaded = new VillageStore(snapshot.toString(), journal.toString()).load();
+        assertEquals("Elder", loaded.getCitizens().get(0).getName());
+
+        while (Files.size(journal) <= snapshotSize) {
+            village.changeFood(1);
+        }
+        assertTrue(store.save(village));
+        assertTrue(new CommandJournalReader(journal.toString()).read().isEmpty());
+        loaded = new VillageStore(snapshot.toString(), journal.toString()).load();
+        assertEquals(village.getTotalFood(), loaded.getTotalFood());
+        store.close();
+    }
+
+    @Test
+    public void testSaveOtherVillageCompacts() throws IOException {
+        VillageStore store = new VillageStore(snapshot.toString(), journal.toString());
+        store.setCompactionRatio(10.0);
+        assertTrue(store.save(new Village()));
+        Village village = store.load();
+        village.renameCitizen(0, "Elder");
+        assertFalse(store.save(village));
+        assertTrue(store.save(new Village()));
+        store.close();
+
+        assertTrue(new CommandJournalReader(journal.toString()).read().isEmpty());
+        assertEquals("Founder", new VillageStore(snapshot.toString(), journal.toString()).load()
+                .getCitizens().get(0).getName());
+    }
+}